@@ -0,0 +1,47 @@
+#!/usr/bin/env bash
+# Runs the check-in burst twice against a freshly started backend, once on Tomcat's platform
+# thread pool and once on virtual threads, and prints both reports side by side.
+#
+# Usage: ./compare-virtual-threads.sh [extra load-test options, e.g. --students 2000 --window-seconds 20]
+set -euo pipefail
+
+cd "$(dirname "$0")"
+BACKEND_DIR=..
+PORT=${PORT:-8080}
+
+(cd "$BACKEND_DIR" && mvn -q -DskipTests package)
+JAR=$(ls "$BACKEND_DIR"/target/*.jar | grep -v original | head -n 1)
+mvn -q compile
+
+run_mode() {
+    local virtual=$1
+    shift
+    echo "=== spring.threads.virtual.enabled=$virtual ==="
+    java -jar "$JAR" \
+        --server.port="$PORT" \
+        --spring.threads.virtual.enabled="$virtual" \
+        --spring.jpa.show-sql=false \
+        --logging.level.com.university.attendance=INFO \
+        --logging.level.org.springframework.security=INFO \
+        --attendance.virtual-threads.pinning-monitor.enabled="$virtual" \
+        > "backend-virtual-$virtual.log" 2>&1 &
+    local pid=$!
+    trap "kill $pid 2>/dev/null || true" EXIT
+
+    until curl -s -o /dev/null "http://localhost:$PORT/api/auth/test"; do
+        sleep 1
+    done
+
+    mvn -q exec:java -Dexec.args="--base-url http://localhost:$PORT --report report-virtual-$virtual.json $*"
+
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    trap - EXIT
+}
+
+run_mode false "$@"
+run_mode true "$@"
+
+echo
+echo "Pinned virtual threads reported during the virtual-thread run:"
+grep -c "pinned its carrier" backend-virtual-true.log || true
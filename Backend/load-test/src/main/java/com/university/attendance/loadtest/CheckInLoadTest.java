@@ -0,0 +1,343 @@
+package com.university.attendance.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Simulates a lecture-hall check-in burst against a running backend.
+ *
+ * A teacher generates and starts a session, then every student, each on its own virtual thread,
+ * arrives at a random moment inside the check-in window and calls verify-location followed by mark,
+ * exactly as the student app does. Latency percentiles, throughput and errors are reported per endpoint.
+ *
+ * Usage: mvn -q compile exec:java -Dexec.args="--students 2000 --window-seconds 20"
+ */
+public class CheckInLoadTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    /** Roughly one metre in degrees of latitude, used to scatter students around the teacher. */
+    private static final double DEGREES_PER_METRE = 1.0 / 111_320.0;
+
+    private final Options options;
+    private final HttpClient client;
+
+    private final EndpointStats signup = new EndpointStats("POST /api/auth/signup");
+    private final EndpointStats login = new EndpointStats("POST /api/auth/login");
+    private final EndpointStats generate = new EndpointStats("POST /api/attendance/generate");
+    private final EndpointStats start = new EndpointStats("POST /api/attendance/start");
+    private final EndpointStats verifyLocation = new EndpointStats("POST /api/attendance/verify-location");
+    private final EndpointStats mark = new EndpointStats("POST /api/attendance/mark");
+    private final LongAdder outsideGeofence = new LongAdder();
+
+    public CheckInLoadTest(Options options, ExecutorService executor) {
+        this.options = options;
+        this.client = HttpClient.newBuilder()
+            .executor(executor)
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            new CheckInLoadTest(options, executor).run(executor);
+        }
+    }
+
+    private void run(ExecutorService executor) throws Exception {
+        System.out.printf("Preparing 1 teacher and %d students against %s%n", options.students, options.baseUrl);
+        Account teacher = authenticate("loadtest_teacher", "TEACHER");
+        if (teacher == null) {
+            throw new IllegalStateException("Could not sign up or log in the load-test teacher");
+        }
+        List<Account> students = prepareStudents(executor);
+        System.out.printf("%d of %d students authenticated%n", students.size(), options.students);
+
+        // Teacher opens the session
+        Map<String, String> generateParams = new LinkedHashMap<>();
+        generateParams.put("courseCode", options.courseCode);
+        generateParams.put("teacherName", "Load Test Teacher");
+        generateParams.put("teacherUsername", teacher.username);
+        JsonNode session = call(generate, postForm("/api/attendance/generate", generateParams, teacher.token));
+        if (session == null) {
+            throw new IllegalStateException("generate failed, aborting");
+        }
+        String code = session.path("code").asText();
+        long sessionId = session.path("sessionId").asLong();
+
+        Map<String, String> startParams = new LinkedHashMap<>();
+        startParams.put("sessionId", Long.toString(sessionId));
+        startParams.put("duration", Integer.toString(options.windowSeconds + 60));
+        startParams.put("teacherLatitude", Double.toString(options.latitude));
+        startParams.put("teacherLongitude", Double.toString(options.longitude));
+        startParams.put("location", "Load test hall");
+        if (call(start, postForm("/api/attendance/start", startParams, teacher.token)) == null) {
+            throw new IllegalStateException("start failed, aborting");
+        }
+
+        // The burst: every student arrives somewhere inside the window
+        System.out.printf("Session %d started, releasing %d students over %d s%n",
+            sessionId, students.size(), options.windowSeconds);
+        Instant burstStart = Instant.now();
+        List<Future<?>> arrivals = new ArrayList<>(students.size());
+        for (Account student : students) {
+            arrivals.add(executor.submit(() -> checkIn(student, code)));
+        }
+        for (Future<?> arrival : arrivals) {
+            arrival.get();
+        }
+        Duration burst = Duration.between(burstStart, Instant.now());
+
+        // Leave the backend as we found it
+        call(null, postForm("/api/attendance/stop", Map.of("sessionId", Long.toString(sessionId)), teacher.token));
+
+        report(sessionId, students.size(), burst);
+    }
+
+    private List<Account> prepareStudents(ExecutorService executor) throws Exception {
+        // Password hashing makes signup expensive; keep it from timing out the setup phase
+        Semaphore permits = new Semaphore(options.setupConcurrency);
+        List<Future<Account>> pending = new ArrayList<>(options.students);
+        for (int i = 0; i < options.students; i++) {
+            String username = "loadtest_student_" + i;
+            pending.add(executor.submit(() -> {
+                permits.acquire();
+                try {
+                    return authenticate(username, "STUDENT");
+                } finally {
+                    permits.release();
+                }
+            }));
+        }
+        List<Account> students = new ArrayList<>(options.students);
+        for (Future<Account> account : pending) {
+            Account student = account.get();
+            if (student != null) {
+                students.add(student);
+            }
+        }
+        return students;
+    }
+
+    private void checkIn(Account student, String code) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(TimeUnit.SECONDS.toMillis(options.windowSeconds) + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        Map<String, Object> location = new HashMap<>();
+        location.put("studentId", student.userId);
+        location.put("latitude", options.latitude + jitterDegrees());
+        location.put("longitude", options.longitude + jitterDegrees());
+        location.put("attendanceCode", code);
+        JsonNode verification = call(verifyLocation, postJson("/api/attendance/verify-location", location, student.token));
+        if (verification == null) {
+            return;
+        }
+        if (!verification.path("verified").asBoolean()) {
+            // The student app does not offer the mark button until the location is verified
+            outsideGeofence.increment();
+            return;
+        }
+
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("code", code);
+        params.put("studentId", Long.toString(student.userId));
+        params.put("courseCode", options.courseCode);
+        call(mark, postForm("/api/attendance/mark", params, student.token));
+    }
+
+    /**
+     * Sign the user up, or log in if the account is left over from a previous run.
+     * @return null if neither worked
+     */
+    private Account authenticate(String username, String role) {
+        Map<String, Object> signupBody = new HashMap<>();
+        signupBody.put("firstName", "Load");
+        signupBody.put("lastName", username);
+        signupBody.put("username", username);
+        signupBody.put("password", options.password);
+        signupBody.put("confirmPassword", options.password);
+        signupBody.put("role", role);
+        signupBody.put("department", "Load Test");
+        signupBody.put("batch", "LT");
+        if ("TEACHER".equals(role)) {
+            signupBody.put("designation", "Lecturer");
+        }
+        JsonNode auth = call(signup, postJson("/api/auth/signup", signupBody, null));
+        if (auth == null) {
+            auth = call(login, postJson("/api/auth/login", Map.of("username", username, "password", options.password), null));
+        }
+        if (auth == null || auth.path("token").isMissingNode()) {
+            return null;
+        }
+        return new Account(username, auth.path("token").asText(), auth.path("user").path("userID").asLong());
+    }
+
+    /**
+     * Send a request and record it against the endpoint.
+     * @param stats null for requests that should not appear in the report
+     * @return the parsed JSON body of a 2xx response, null otherwise
+     */
+    private JsonNode call(EndpointStats stats, HttpRequest request) {
+        long startNanos = System.nanoTime();
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            long endNanos = System.nanoTime();
+            if (response.statusCode() / 100 != 2) {
+                if (stats != null) {
+                    stats.recordError(startNanos, endNanos, "HTTP " + response.statusCode());
+                }
+                return null;
+            }
+            if (stats != null) {
+                stats.recordSuccess(startNanos, endNanos);
+            }
+            return response.body().isEmpty() ? MAPPER.createObjectNode() : MAPPER.readTree(response.body());
+        } catch (IOException e) {
+            if (stats != null) {
+                stats.recordError(startNanos, System.nanoTime(), e.getClass().getSimpleName());
+            }
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private HttpRequest postForm(String path, Map<String, String> params, String token) {
+        StringJoiner query = new StringJoiner("&");
+        params.forEach((name, value) -> query.add(name + "=" + URLEncoder.encode(value, StandardCharsets.UTF_8)));
+        return request(path + "?" + query, token)
+            .POST(HttpRequest.BodyPublishers.noBody())
+            .build();
+    }
+
+    private HttpRequest postJson(String path, Object body, String token) {
+        try {
+            return request(path, token)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(MAPPER.writeValueAsString(body)))
+                .build();
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unserializable request body", e);
+        }
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(options.baseUrl + path))
+            .timeout(Duration.ofSeconds(options.requestTimeoutSeconds));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private double jitterDegrees() {
+        return (ThreadLocalRandom.current().nextDouble() * 2 - 1) * options.jitterMeters * DEGREES_PER_METRE;
+    }
+
+    private void report(long sessionId, int students, Duration burst) throws IOException {
+        List<Map<String, Object>> endpoints = new ArrayList<>();
+        for (EndpointStats stats : List.of(signup, login, generate, start, verifyLocation, mark)) {
+            endpoints.add(stats.summary());
+        }
+
+        System.out.println();
+        System.out.printf("%-40s %8s %8s %9s %9s %9s %10s%n",
+            "endpoint", "requests", "errors", "p50 ms", "p99 ms", "max ms", "req/s");
+        for (Map<String, Object> e : endpoints) {
+            System.out.printf("%-40s %8d %8d %9.1f %9.1f %9.1f %10.1f%n",
+                e.get("endpoint"), e.get("requests"), e.get("errors"),
+                e.get("p50Ms"), e.get("p99Ms"), e.get("maxMs"), e.get("throughputPerSec"));
+            @SuppressWarnings("unchecked")
+            Map<String, Long> errors = (Map<String, Long>) e.get("errorBreakdown");
+            errors.forEach((reason, count) -> System.out.printf("    %-36s %8d%n", reason, count));
+        }
+        System.out.printf("%nBurst of %d students finished in %.1f s, %d rejected by the geofence%n",
+            students, burst.toMillis() / 1000.0, outsideGeofence.sum());
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("baseUrl", options.baseUrl);
+        report.put("sessionId", sessionId);
+        report.put("students", students);
+        report.put("windowSeconds", options.windowSeconds);
+        report.put("burstSeconds", burst.toMillis() / 1000.0);
+        report.put("outsideGeofence", outsideGeofence.sum());
+        report.put("endpoints", endpoints);
+        MAPPER.writeValue(Path.of(options.reportFile).toFile(), report);
+        System.out.println("Report written to " + options.reportFile);
+    }
+
+    private record Account(String username, String token, long userId) {
+    }
+
+    static final class Options {
+        String baseUrl = "http://localhost:8080";
+        int students = 2000;
+        int windowSeconds = 20;
+        String courseCode = "LOAD101";
+        String password = "loadtest123";
+        double latitude = 23.7808;
+        double longitude = 90.4070;
+        double jitterMeters = 30;
+        int requestTimeoutSeconds = 30;
+        int setupConcurrency = 64;
+        String reportFile = "load-test-report.json";
+
+        static Options parse(String[] args) {
+            Options options = new Options();
+            for (int i = 0; i < args.length; i++) {
+                String name = args[i];
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + name);
+                }
+                String value = args[++i];
+                switch (name) {
+                    case "--base-url" -> options.baseUrl = value.endsWith("/") ? value.substring(0, value.length() - 1) : value;
+                    case "--students" -> options.students = Integer.parseInt(value);
+                    case "--window-seconds" -> options.windowSeconds = Integer.parseInt(value);
+                    case "--course" -> options.courseCode = value;
+                    case "--password" -> options.password = value;
+                    case "--lat" -> options.latitude = Double.parseDouble(value);
+                    case "--lon" -> options.longitude = Double.parseDouble(value);
+                    case "--jitter-meters" -> options.jitterMeters = Double.parseDouble(value);
+                    case "--timeout-seconds" -> options.requestTimeoutSeconds = Integer.parseInt(value);
+                    case "--setup-concurrency" -> options.setupConcurrency = Integer.parseInt(value);
+                    case "--report" -> options.reportFile = value;
+                    default -> throw new IllegalArgumentException("Unknown option " + name);
+                }
+            }
+            return options;
+        }
+    }
+}
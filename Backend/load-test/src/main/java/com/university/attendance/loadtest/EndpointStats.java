@@ -0,0 +1,85 @@
+package com.university.attendance.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency samples and error breakdown for one endpoint. Thread-safe; one instance is shared by all clients.
+ */
+public class EndpointStats {
+
+    private final String name;
+    private long[] latenciesNanos = new long[1024];
+    private int count;
+    private final LongAdder successes = new LongAdder();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+    private final AtomicLong firstStartNanos = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong lastEndNanos = new AtomicLong(Long.MIN_VALUE);
+
+    public EndpointStats(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void recordSuccess(long startNanos, long endNanos) {
+        successes.increment();
+        record(startNanos, endNanos);
+    }
+
+    /**
+     * @param reason e.g. "HTTP 400" or the exception class of a transport failure
+     */
+    public void recordError(long startNanos, long endNanos, String reason) {
+        errors.computeIfAbsent(reason, r -> new LongAdder()).increment();
+        record(startNanos, endNanos);
+    }
+
+    private void record(long startNanos, long endNanos) {
+        firstStartNanos.accumulateAndGet(startNanos, Math::min);
+        lastEndNanos.accumulateAndGet(endNanos, Math::max);
+        synchronized (this) {
+            if (count == latenciesNanos.length) {
+                latenciesNanos = Arrays.copyOf(latenciesNanos, count * 2);
+            }
+            latenciesNanos[count++] = endNanos - startNanos;
+        }
+    }
+
+    /**
+     * Summary with latencies in milliseconds and throughput in requests per second over the active window.
+     */
+    public synchronized Map<String, Object> summary() {
+        long[] sorted = Arrays.copyOf(latenciesNanos, count);
+        Arrays.sort(sorted);
+        double windowSeconds = count > 0 ? (lastEndNanos.get() - firstStartNanos.get()) / 1e9 : 0;
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("endpoint", name);
+        summary.put("requests", count);
+        summary.put("successes", successes.sum());
+        summary.put("errors", count - successes.sum());
+        summary.put("p50Ms", percentileMillis(sorted, 0.50));
+        summary.put("p99Ms", percentileMillis(sorted, 0.99));
+        summary.put("maxMs", count > 0 ? sorted[count - 1] / 1e6 : 0.0);
+        summary.put("throughputPerSec", windowSeconds > 0 ? count / windowSeconds : 0.0);
+        Map<String, Long> errorBreakdown = new LinkedHashMap<>();
+        errors.forEach((reason, n) -> errorBreakdown.put(reason, n.sum()));
+        summary.put("errorBreakdown", errorBreakdown);
+        return summary;
+    }
+
+    private static double percentileMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
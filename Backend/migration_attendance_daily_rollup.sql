@@ -0,0 +1,28 @@
+-- Migration to add daily attendance rollups per course and student batch
+-- The admin attendance trends read these buckets instead of scanning attendance.
+-- AttendanceSummaryService adds to them on every mark; days are in the server's time zone.
+-- Column names follow Hibernate's physical naming (courseCode -> course_code).
+
+USE attendance_tracker;
+
+CREATE TABLE IF NOT EXISTS attendance_daily_rollup (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    day DATE NOT NULL,
+    course_code VARCHAR(255) NOT NULL,
+    batch VARCHAR(255) NOT NULL DEFAULT '',
+    total BIGINT NOT NULL DEFAULT 0,
+    present BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT uk_attendance_rollup_day_course_batch UNIQUE (day, course_code, batch),
+    INDEX idx_attendance_rollup_course_day (course_code, day),
+    INDEX idx_attendance_rollup_batch_day (batch, day)
+) ENGINE=InnoDB;
+
+-- Backfill from existing attendance rows (re-running resets the buckets to the recomputed values)
+-- Timestamps are stored in UTC; convert with CONVERT_TZ if the server does not run in UTC.
+INSERT INTO attendance_daily_rollup (day, course_code, batch, total, present)
+SELECT DATE(a.timestamp), a.course_code, COALESCE(TRIM(u.batch), ''), COUNT(*), SUM(a.status = 'PRESENT')
+FROM attendance a
+LEFT JOIN users u ON u.userID = a.studentID
+WHERE a.course_code IS NOT NULL
+GROUP BY DATE(a.timestamp), a.course_code, COALESCE(TRIM(u.batch), '')
+ON DUPLICATE KEY UPDATE total = VALUES(total), present = VALUES(present);
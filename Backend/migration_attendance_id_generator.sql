@@ -0,0 +1,16 @@
+-- Migration to move attendance IDs from AUTO_INCREMENT to a table-based generator
+-- Hibernate cannot batch inserts for IDENTITY columns; the Attendance entity now allocates
+-- IDs in blocks of 50 from the id_generators table (pooled-lo optimizer).
+
+CREATE TABLE IF NOT EXISTS id_generators (
+    gen_name VARCHAR(64) NOT NULL PRIMARY KEY,
+    gen_value BIGINT NOT NULL
+) ENGINE=InnoDB;
+
+-- Seed the next attendance ID above every existing row so generated IDs never collide
+INSERT INTO id_generators (gen_name, gen_value)
+SELECT 'attendance', COALESCE(MAX(attendanceID), 0) + 1 FROM attendance
+ON DUPLICATE KEY UPDATE gen_value = GREATEST(gen_value, VALUES(gen_value));
+
+-- Verify generator state
+SELECT * FROM id_generators;
@@ -0,0 +1,29 @@
+-- Migration to count missed classes in the daily attendance rollups
+-- Run after migration_attendance_daily_rollup.sql. Attendance is only written for students who
+-- mark, so rates need the enrolled students who did not: total + missed is the number expected.
+-- AttendanceSummaryService adds to missed when a started session ends, on its scheduled day.
+
+USE attendance_tracker;
+
+ALTER TABLE attendance_daily_rollup
+ADD COLUMN missed BIGINT NOT NULL DEFAULT 0;
+
+-- Backfill from ended sessions that were started (re-running resets missed to the recomputed values)
+-- Scheduled times are stored in UTC; convert with CONVERT_TZ if the server does not run in UTC.
+INSERT INTO attendance_daily_rollup (day, course_code, batch, total, present, missed)
+SELECT m.day, m.course_code, m.batch, 0, 0, m.missed_count
+FROM (
+    SELECT DATE(cs.scheduled_time) AS day, c.code AS course_code, COALESCE(TRIM(u.batch), '') AS batch,
+           COUNT(DISTINCT cs.sessionID, e.user_id) AS missed_count
+    FROM class_sessions cs
+    JOIN courses c ON c.code = cs.course_code
+    JOIN enrollments e ON e.course_id = c.id AND e.role = 'STUDENT'
+    LEFT JOIN users u ON u.userID = e.user_id
+    WHERE cs.status = 'ENDED' AND cs.duration > 0
+      AND NOT EXISTS (SELECT 1 FROM attendance a WHERE a.sessionID = cs.sessionID AND a.studentID = e.user_id)
+    GROUP BY DATE(cs.scheduled_time), c.code, COALESCE(TRIM(u.batch), '')
+) m
+ON DUPLICATE KEY UPDATE missed = m.missed_count;
+
+-- Verify the buckets
+SELECT day, course_code, batch, total, present, missed FROM attendance_daily_rollup ORDER BY day DESC, course_code LIMIT 20;
@@ -0,0 +1,38 @@
+-- Migration to add per-student, per-course attendance counters
+-- The student dashboard and statistics endpoints read these rows instead of scanning attendance.
+-- AttendanceSummaryService keeps them current on every mark and when a session ends.
+-- Column names follow Hibernate's physical naming (courseCode -> course_code, studentID -> studentid).
+
+USE attendance_tracker;
+
+CREATE TABLE IF NOT EXISTS attendance_summary (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    studentID BIGINT NOT NULL,
+    course_code VARCHAR(255) NOT NULL,
+    attended BIGINT NOT NULL DEFAULT 0,
+    total BIGINT NOT NULL DEFAULT 0,
+    last_seen DATETIME(6) NULL,
+    CONSTRAINT uk_attendance_summary_student_course UNIQUE (studentID, course_code)
+) ENGINE=InnoDB;
+
+-- Backfill from existing attendance rows (re-running resets the counters to the recomputed values)
+INSERT INTO attendance_summary (studentID, course_code, attended, total, last_seen)
+SELECT studentID, course_code, SUM(status = 'PRESENT'), COUNT(*), MAX(timestamp)
+FROM attendance
+WHERE course_code IS NOT NULL
+GROUP BY studentID, course_code
+ON DUPLICATE KEY UPDATE attended = VALUES(attended), total = VALUES(total), last_seen = VALUES(last_seen);
+
+-- Add ended sessions of enrolled courses that the student did not mark (generated codes that were never started have duration 0)
+INSERT INTO attendance_summary (studentID, course_code, attended, total, last_seen)
+SELECT e.user_id, c.code, 0, COUNT(DISTINCT cs.sessionID), NULL
+FROM enrollments e
+JOIN courses c ON c.id = e.course_id
+JOIN class_sessions cs ON cs.course_code = c.code AND cs.status = 'ENDED' AND cs.duration > 0
+WHERE e.role = 'STUDENT'
+  AND NOT EXISTS (SELECT 1 FROM attendance a WHERE a.sessionID = cs.sessionID AND a.studentID = e.user_id)
+GROUP BY e.user_id, c.code
+ON DUPLICATE KEY UPDATE total = total + VALUES(total);
+
+-- Verify the counters
+SELECT studentID, course_code, attended, total, last_seen FROM attendance_summary ORDER BY studentID, course_code LIMIT 20;
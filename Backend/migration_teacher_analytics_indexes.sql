@@ -0,0 +1,11 @@
+-- Migration to add indexes for the teacher statistics and dashboard queries
+-- TeacherAnalyticsService groups attendance_summary by student over a teacher's courses and looks up
+-- the first attendance mark of a course on a day; both filter on course_code, which neither table's
+-- existing indexes lead with.
+-- Column names follow Hibernate's physical naming (courseCode -> course_code).
+-- Per-day class totals come from attendance_daily_rollup (see migration_attendance_daily_rollup.sql).
+
+USE attendance_tracker;
+
+CREATE INDEX IF NOT EXISTS idx_attendance_summary_course_student ON attendance_summary(course_code, studentID, attended, total);
+CREATE INDEX IF NOT EXISTS idx_attendance_course_timestamp ON attendance(course_code, timestamp);
@@ -0,0 +1,78 @@
+package com.university.attendance.benchmark;
+
+import com.university.attendance.dto.AttendeeDetailsResponse;
+import com.university.attendance.dto.GenerateCodeResponse;
+import com.university.attendance.entity.Attendance;
+import com.university.attendance.entity.Student;
+import com.university.attendance.repository.AttendanceRepository;
+import com.university.attendance.repository.StudentRepository;
+import com.university.attendance.service.AttendanceService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AttendanceService.getAttendeesWithDetails for sessions of 50, 500 and 5000 attendees, against H2.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AttendeeDetailsBenchmark {
+
+    @Param({"50", "500", "5000"})
+    public int attendees;
+
+    private ConfigurableApplicationContext context;
+    private AttendanceService attendanceService;
+    private Long sessionId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        attendanceService = context.getBean(AttendanceService.class);
+        StudentRepository studentRepository = context.getBean(StudentRepository.class);
+        AttendanceRepository attendanceRepository = context.getBean(AttendanceRepository.class);
+
+        GenerateCodeResponse code = attendanceService.generateCode("CSE-4101", "Bench Teacher", "bench_teacher");
+        attendanceService.startAttendance(code.getSessionId(), 3600);
+        sessionId = code.getSessionId();
+
+        List<Student> students = new ArrayList<>(attendees);
+        for (int i = 0; i < attendees; i++) {
+            students.add(new Student("Student", null, String.valueOf(i), null, null,
+                "bench_" + i, "unused", "CSE", "21", "A", null));
+        }
+        students = studentRepository.saveAll(students);
+
+        Instant now = Instant.now();
+        List<Attendance> rows = new ArrayList<>(attendees);
+        for (Student student : students) {
+            Attendance attendance = new Attendance();
+            attendance.setStudentID(student.getUserID());
+            attendance.setCourseCode("CSE-4101");
+            attendance.setSessionID(sessionId);
+            attendance.setAttendanceCode(code.getCode());
+            attendance.setTimestamp(now);
+            attendance.setStatus("PRESENT");
+            rows.add(attendance);
+        }
+        attendanceRepository.saveAll(rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<AttendeeDetailsResponse> getAttendeesWithDetails() {
+        return attendanceService.getAttendeesWithDetails(sessionId);
+    }
+}
@@ -0,0 +1,32 @@
+package com.university.attendance.benchmark;
+
+import com.university.attendance.AttendanceTrackerApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Boots the application against an in-memory H2 database (MySQL mode) in place of MySQL.
+ */
+final class BenchmarkContext {
+
+    private BenchmarkContext() {}
+
+    static ConfigurableApplicationContext start() {
+        // Command-line arguments, because builder properties() are only defaults and application.yml wins over them
+        return new SpringApplicationBuilder(AttendanceTrackerApplication.class)
+            .run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:attendance_bench;MODE=MySQL;NON_KEYWORDS=DAY;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.properties.hibernate.format_sql=false",
+                "--spring.devtools.restart.enabled=false",
+                // The database starts empty, so the journal must not carry marks over from an earlier fork
+                "--attendance.write-behind.journal-path=target/benchmark-journal/" + ProcessHandle.current().pid() + ".log",
+                "--logging.level.root=WARN");
+    }
+}
@@ -0,0 +1,53 @@
+package com.university.attendance.benchmark;
+
+import com.university.attendance.dto.LocationVerificationResponse;
+import com.university.attendance.service.GeofenceEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Distance computation and geofence decision of location verification.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeofenceBenchmark {
+
+    private final GeofenceEngine engine = new GeofenceEngine();
+    private GeofenceEngine.ReferencePoint classroom;
+
+    // Student positions: 40 m away (inside) and 3 km away (bounding-box reject)
+    private double nearLat = 23.81066;
+    private double nearLon = 90.41250;
+    private double farLat = 23.83730;
+    private double farLon = 90.41250;
+
+    @Setup
+    public void setUp() {
+        classroom = GeofenceEngine.ReferencePoint.of(23.8103, 90.4125);
+    }
+
+    @Benchmark
+    public double calculateDistance() {
+        return GeofenceEngine.haversineMeters(23.8103, 90.4125, nearLat, nearLon);
+    }
+
+    @Benchmark
+    public double referencePointDistance() {
+        return classroom.distanceMeters(nearLat, nearLon);
+    }
+
+    @Benchmark
+    public LocationVerificationResponse verifyNear() {
+        return engine.verify(classroom, "Room 3307", nearLat, nearLon);
+    }
+
+    @Benchmark
+    public LocationVerificationResponse verifyFar() {
+        return engine.verify(classroom, "Room 3307", farLat, farLon);
+    }
+}
@@ -0,0 +1,70 @@
+package com.university.attendance.benchmark;
+
+import com.university.attendance.dto.GenerateCodeResponse;
+import com.university.attendance.entity.Attendance;
+import com.university.attendance.service.AttendanceService;
+import com.university.attendance.service.AttendanceWriteBehindQueue;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * AttendanceService.markAttendance for distinct students of one open session, against H2.
+ *
+ * markAttendance returns once the mark is handed to the write-behind queue, so markAttendance measures
+ * what a check-in request waits for. markAttendanceAndPersist also waits until the flusher has inserted
+ * every mark of the invocation (attendance, summary and rollup rows), which is the rate the database
+ * sustains.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MarkAttendanceBenchmark {
+
+    private static final int MARKS_PER_INVOCATION = 100;
+
+    private ConfigurableApplicationContext context;
+    private AttendanceService attendanceService;
+    private AttendanceWriteBehindQueue writeBehindQueue;
+    private String accessCode;
+    private final AtomicLong nextStudentId = new AtomicLong(1);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        attendanceService = context.getBean(AttendanceService.class);
+        writeBehindQueue = context.getBean(AttendanceWriteBehindQueue.class);
+        GenerateCodeResponse code = attendanceService.generateCode("CSE-4101", "Bench Teacher", "bench_teacher");
+        attendanceService.startAttendance(code.getSessionId(), 3600);
+        accessCode = code.getCode();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Attendance markAttendance() {
+        return attendanceService.markAttendance(accessCode, nextStudentId.getAndIncrement(), "CSE-4101");
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MARKS_PER_INVOCATION)
+    public int markAttendanceAndPersist() {
+        for (int i = 0; i < MARKS_PER_INVOCATION; i++) {
+            attendanceService.markAttendance(accessCode, nextStudentId.getAndIncrement(), "CSE-4101");
+        }
+        while (writeBehindQueue.pendingCount() > 0) {
+            LockSupport.parkNanos(20_000);
+        }
+        return MARKS_PER_INVOCATION;
+    }
+}
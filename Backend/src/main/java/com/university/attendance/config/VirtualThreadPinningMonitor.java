@@ -0,0 +1,77 @@
+package com.university.attendance.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Logs every time a virtual thread stays pinned to its carrier for longer than threshold-ms.
+ *
+ * It listens to the JFR jdk.VirtualThreadPinned event in-process, which is what replaces the
+ * -Djdk.tracePinnedThreads flag from Java 24 on. Turn it on with attendance.virtual-threads.pinning-monitor.enabled
+ * while load testing with spring.threads.virtual.enabled to find blocking calls (native code, class
+ * initialisation, synchronized on older JDKs) that hold up a carrier thread.
+ */
+@Component
+@ConditionalOnProperty(name = "attendance.virtual-threads.pinning-monitor.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    @Value("${attendance.virtual-threads.pinning-monitor.threshold-ms:20}")
+    private long thresholdMs;
+
+    @Value("${attendance.virtual-threads.pinning-monitor.stack-depth:12}")
+    private int stackDepth;
+
+    private RecordingStream stream;
+
+    @PostConstruct
+    public void start() {
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(Duration.ofMillis(thresholdMs)).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::logPinnedEvent);
+        stream.startAsync();
+        logger.info("Watching for virtual threads pinned longer than {} ms", thresholdMs);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void logPinnedEvent(RecordedEvent event) {
+        StringBuilder trace = new StringBuilder();
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        if (stackTrace != null) {
+            List<RecordedFrame> frames = stackTrace.getFrames();
+            for (int i = 0; i < Math.min(stackDepth, frames.size()); i++) {
+                RecordedFrame frame = frames.get(i);
+                trace.append("\n    at ")
+                    .append(frame.getMethod().getType().getName())
+                    .append('.')
+                    .append(frame.getMethod().getName())
+                    .append(':')
+                    .append(frame.getLineNumber());
+            }
+        }
+        logger.warn("Virtual thread {} pinned its carrier for {} ms{}",
+            event.getThread() != null ? event.getThread().getJavaName() : "?",
+            event.getDuration().toMillis(), trace);
+    }
+}
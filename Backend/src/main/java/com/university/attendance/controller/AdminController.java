@@ -3,15 +3,31 @@ package com.university.attendance.controller;
 import com.university.attendance.dto.*;
 import com.university.attendance.entity.*;
 import com.university.attendance.repository.*;
+import com.university.attendance.security.AuthenticatedPrincipalCache;
+import com.university.attendance.service.ActivityFeed;
+import com.university.attendance.service.AttendanceExportService;
+import com.university.attendance.service.AttendanceReportService;
+import com.university.attendance.service.AttendanceService;
 import com.university.attendance.service.CourseService;
+import com.university.attendance.service.EnrollmentCache;
+import com.university.attendance.service.RoutineConflictIndex;
+import com.university.attendance.service.TimetableCache;
 import com.university.attendance.util.JwtUtil;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeParseException;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -21,6 +37,8 @@ import java.util.stream.Collectors;
 @CrossOrigin(origins = {"http://localhost:3000", "http://localhost:5173", "http://localhost:5174", "http://localhost:5175"})
 public class AdminController {
 
+    private static final int MAX_OVERVIEW_PAGE_SIZE = 500;
+
     @Autowired
     private CourseService courseService;
 
@@ -48,6 +66,30 @@ public class AdminController {
     @Autowired
     private ClassSessionRepository classSessionRepository;
 
+    @Autowired
+    private AttendanceService attendanceService;
+
+    @Autowired
+    private AuthenticatedPrincipalCache principalCache;
+
+    @Autowired
+    private EnrollmentCache enrollmentCache;
+
+    @Autowired
+    private TimetableCache timetableCache;
+
+    @Autowired
+    private ActivityFeed activityFeed;
+
+    @Autowired
+    private AttendanceExportService attendanceExportService;
+
+    @Autowired
+    private AttendanceReportService attendanceReportService;
+
+    @Value("${attendance.reports.low-attendance-threshold:75}")
+    private double lowAttendanceThreshold;
+
     // Attendance Overview API Endpoints
 
     @GetMapping("/attendance/overview")
@@ -55,6 +97,8 @@ public class AdminController {
             @RequestParam(required = false) String batch,
             @RequestParam(required = false) String courseCode,
             @RequestParam(required = false) String dateRange,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "100") int size,
             @RequestHeader("Authorization") String authHeader) {
         
         try {
@@ -64,91 +108,29 @@ public class AdminController {
                     .body(Map.of("error", "Access denied. Admin role required."));
             }
 
-            // Get attendance data and integrate with users table batch info (like course management)
-            List<Map<String, Object>> attendanceData = attendanceRepository.findAll()
-                .stream()
-                .map(attendance -> {
-                    Map<String, Object> record = new HashMap<>();
-                    record.put("id", attendance.getAttendanceID());
-                    record.put("studentId", attendance.getStudentID());
-                    record.put("courseCode", attendance.getCourseCode());
-                    record.put("sessionId", attendance.getSessionID());
-                    record.put("status", attendance.getStatus());
-                    record.put("timestamp", attendance.getTimestamp());
-                    
-                    // Integrate batch from users table (same pattern as course management)
-                    Optional<User> user = userRepository.findById(attendance.getStudentID());
-                    if (user.isPresent()) {
-                        User student = user.get();
-                        record.put("studentName", student.getFirstName() + " " + student.getLastName());
-                        
-                        // Use users table batch (19,20,21,22 to 30) - same as course management pattern
-                        String userBatch = student.getBatch();
-                        record.put("batch", userBatch != null ? userBatch.trim() : "No Batch");
-                        record.put("userBatch", userBatch);
-                        record.put("fullName", student.getName());
-                        record.put("username", student.getUsername());
-                        record.put("email", student.getEmail());
-                        
-                        // Get additional details from Student entity for department/section
-                        Optional<Student> studentEntity = studentRepository.findById(attendance.getStudentID());
-                        if (studentEntity.isPresent()) {
-                            record.put("department", studentEntity.get().getDepartment());
-                            record.put("section", studentEntity.get().getSection());
-                            record.put("studentBatch", studentEntity.get().getBatch()); // Keep for reference
-                        } else {
-                            record.put("department", "Unknown");
-                            record.put("section", null);
-                            record.put("studentBatch", null);
-                        }
-                    } else {
-                        // Fallback if user not found
-                        record.put("studentName", "Unknown Student");
-                        record.put("batch", "No Batch");
-                        record.put("userBatch", null);
-                        record.put("fullName", null);
-                        record.put("username", null);
-                        record.put("email", null);
-                        record.put("department", "Unknown");
-                        record.put("section", null);
-                        record.put("studentBatch", null);
-                    }
-                    
-                    // Get course details
-                    Optional<Course> course = courseRepository.findByCode(attendance.getCourseCode());
-                    if (course.isPresent()) {
-                        record.put("courseTitle", course.get().getTitle());
-                    } else {
-                        record.put("courseTitle", attendance.getCourseCode()); // Fallback to code
-                    }
-                    
-                    return record;
-                })
-                .filter(record -> {
-                    // Apply batch filter using users table batch (same as course management)
-                    if (batch != null && !batch.equals("all")) {
-                        String recordBatch = (String) record.get("batch");
-                        return batch.equals(recordBatch);
-                    }
-                    return true;
-                })
-                .filter(record -> {
-                    // Apply course filter if specified
-                    if (courseCode != null && !courseCode.equals("all")) {
-                        String recordCourse = (String) record.get("courseCode");
-                        return courseCode.equals(recordCourse);
-                    }
-                    return true;
-                })
-                .collect(Collectors.toList());
+            // Filters run in the joined query; only one page of rows is ever loaded
+            int pageSize = Math.max(1, Math.min(size, MAX_OVERVIEW_PAGE_SIZE));
+            List<AttendanceOverviewRecord> attendanceData = attendanceRepository.findOverviewPage(
+                cursor != null ? cursor : Long.MAX_VALUE,
+                overviewRangeStart(dateRange),
+                courseCode != null && !courseCode.equals("all") ? courseCode : null,
+                batch != null && !batch.equals("all") ? batch : null,
+                PageRequest.of(0, pageSize));
 
-            return ResponseEntity.ok(Map.of(
-                "success", true,
-                "attendanceRecords", attendanceData,
-                "total", attendanceData.size(),
-                "batchSource", "users_table", // Indicate source like course management
-                "message", "Batch data integrated from users table (batches 19-30)"
-            ));
+            // A full page means there may be more; the client passes nextCursor back as cursor
+            Long nextCursor = attendanceData.size() == pageSize
+                ? attendanceData.get(attendanceData.size() - 1).getId()
+                : null;
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("attendanceRecords", attendanceData);
+            response.put("total", attendanceData.size());
+            response.put("nextCursor", nextCursor);
+            response.put("hasMore", nextCursor != null);
+            response.put("batchSource", "users_table"); // Indicate source like course management
+            response.put("message", "Batch data integrated from users table (batches 19-30)");
+            return ResponseEntity.ok(response);
 
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -156,6 +138,52 @@ public class AdminController {
         }
     }
 
+    /**
+     * Earliest timestamp included for an overview dateRange (today, week, month, semester).
+     * Anything else, including no value, means the whole history.
+     */
+    private Instant overviewRangeStart(String dateRange) {
+        LocalDate start = AttendanceReportService.rangeStart(dateRange, LocalDate.now());
+        return start != null ? start.atStartOfDay(ZoneId.systemDefault()).toInstant() : Instant.EPOCH;
+    }
+
+    /**
+     * Attendance as a CSV download, filtered like the overview (batch, courseCode, dateRange).
+     * Rows are streamed from a database cursor, so the export size does not affect memory.
+     */
+    @GetMapping("/attendance/export")
+    public ResponseEntity<?> exportAttendance(
+            @RequestParam(required = false) String batch,
+            @RequestParam(required = false) String courseCode,
+            @RequestParam(required = false) String dateRange,
+            @RequestHeader("Authorization") String authHeader) {
+        // Validate admin role
+        if (!isAdminUser(authHeader)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                .body(Map.of("error", "Access denied. Admin role required."));
+        }
+
+        Instant from = overviewRangeStart(dateRange);
+        String course = courseCode != null && !courseCode.equals("all") ? courseCode : null;
+        String batchFilter = batch != null && !batch.equals("all") ? batch : null;
+        StreamingResponseBody body = out -> attendanceExportService.writeCsv(from, course, batchFilter, out);
+
+        String filename = "attendance-" + LocalDate.now() + ".csv";
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType("text/csv; charset=UTF-8"))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+            .body(body);
+    }
+
+    @GetMapping("/cache/enrollments")
+    public ResponseEntity<?> getEnrollmentCacheStats(@RequestHeader("Authorization") String authHeader) {
+        if (!isAdminUser(authHeader)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                .body(Map.of("error", "Access denied. Admin role required."));
+        }
+        return ResponseEntity.ok(Map.of("success", true, "stats", enrollmentCache.stats()));
+    }
+
     @GetMapping("/attendance/statistics")
     public ResponseEntity<?> getAttendanceStatistics(@RequestHeader("Authorization") String authHeader) {
         try {
@@ -347,50 +375,16 @@ public class AdminController {
                     .body(Map.of("error", "Access denied. Admin role required."));
             }
 
-            // Create batch summary using users table batch integration (same pattern as course management)
-            Map<String, List<Long>> batchStudentsMap = new HashMap<>();
-            
-            // Get all students with batch information from users table (batches 19-30)
-            List<User> studentUsers = userRepository.findByRole(UserRole.STUDENT);
-            
-            for (User user : studentUsers) {
-                // Integrate batch from users table (same approach as course management)
-                String userBatch = user.getBatch();
-                
-                if (userBatch != null && !userBatch.trim().isEmpty()) {
-                    String batchKey = userBatch.trim();
-                    if (!batchStudentsMap.containsKey(batchKey)) {
-                        batchStudentsMap.put(batchKey, new ArrayList<>());
-                    }
-                    batchStudentsMap.get(batchKey).add(user.getUserID());
-                }
-            }
-            
-            List<Map<String, Object>> batchSummary = batchStudentsMap.entrySet().stream()
-                .map(entry -> {
-                    String batchName = entry.getKey();
-                    List<Long> studentIds = entry.getValue();
-                    
-                    // Calculate attendance statistics for this batch using users table integration
-                    long totalAttendanceRecords = attendanceRepository.findAll().stream()
-                        .filter(a -> studentIds.contains(a.getStudentID()))
-                        .count();
-                    
-                    long presentRecords = attendanceRepository.findAll().stream()
-                        .filter(a -> studentIds.contains(a.getStudentID()))
-                        .filter(a -> "PRESENT".equals(a.getStatus()))
-                        .count();
-                    
-                    double attendancePercentage = totalAttendanceRecords > 0 ? 
-                        ((double) presentRecords / totalAttendanceRecords) * 100 : 0;
-                    
+            // One GROUP BY over students joined to their attendance summaries (users table batch integration)
+            List<Map<String, Object>> batchSummary = attendanceReportService.getBatchSummaries().stream()
+                .map(summary -> {
                     Map<String, Object> batchData = new HashMap<>();
-                    batchData.put("batch", batchName);
-                    batchData.put("totalStudents", studentIds.size());
-                    batchData.put("attendancePercentage", Math.round(attendancePercentage * 10.0) / 10.0);
-                    batchData.put("totalRecords", totalAttendanceRecords);
-                    batchData.put("presentRecords", presentRecords);
-                    batchData.put("absentRecords", totalAttendanceRecords - presentRecords);
+                    batchData.put("batch", summary.getBatch());
+                    batchData.put("totalStudents", summary.getTotalStudents());
+                    batchData.put("attendancePercentage", Math.round(summary.getAttendancePercentage() * 10.0) / 10.0);
+                    batchData.put("totalRecords", summary.getTotalRecords());
+                    batchData.put("presentRecords", summary.getPresentRecords());
+                    batchData.put("absentRecords", summary.getTotalRecords() - summary.getPresentRecords());
                     
                     return batchData;
                 })
@@ -702,10 +696,20 @@ public class AdminController {
                     .body(Map.of("success", false, "message", "Routine already exists for this course, day, time and batch"));
             }
 
+            // Reject slots that overlap another routine of the same teacher or batch
+            Optional<RoutineConflictIndex.RoutineConflict> overlap = timetableCache.findOverlap(
+                teacher.get().getUserID(), request.getStudentBatch(), request.getDay(), courseTime, endTime);
+            if (overlap.isPresent()) {
+                return ResponseEntity.badRequest()
+                    .body(Map.of("success", false, "message", overlap.get().getDescription(), "conflict", overlap.get()));
+            }
+
             // Create routine
             Routine routine = new Routine(course.get(), courseTime, endTime, request.getDay(), 
                                         teacher.get(), request.getStudentBatch());
             routine = routineRepository.save(routine);
+            timetableCache.invalidate();
+            activityFeed.routineCreated(course.get().getCode(), request.getDay(), request.getStudentBatch());
 
             // Create response
             RoutineResponse response = new RoutineResponse(
@@ -768,6 +772,21 @@ public class AdminController {
         }
     }
 
+    @GetMapping("/routines/conflicts")
+    public ResponseEntity<?> getRoutineConflicts() {
+        try {
+            List<RoutineConflictIndex.RoutineConflict> conflicts = timetableCache.findAllConflicts();
+            return ResponseEntity.ok(Map.of(
+                "success", true,
+                "totalConflicts", conflicts.size(),
+                "conflicts", conflicts
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("success", false, "message", "Error checking routine conflicts: " + e.getMessage()));
+        }
+    }
+
     @DeleteMapping("/routine/{id}")
     public ResponseEntity<?> deleteRoutine(@PathVariable Long id) {
         try {
@@ -777,6 +796,7 @@ public class AdminController {
             }
 
             routineRepository.deleteById(id);
+            timetableCache.invalidate();
             
             return ResponseEntity.ok(Map.of(
                 "success", true,
@@ -995,6 +1015,8 @@ public class AdminController {
             // Update user status using the enabled field
             user.setEnabled(status.equals("active"));
             userRepository.save(user);
+            // Tokens already issued to this user must be re-checked against the new status
+            principalCache.invalidateUser(user.getUsername());
 
             return ResponseEntity.ok(Map.of(
                 "success", true,
@@ -1035,6 +1057,11 @@ public class AdminController {
 
             // Delete the user (related Student/Teacher records will be deleted automatically via CASCADE)
             userRepository.delete(user);
+            principalCache.invalidateUser(user.getUsername());
+            enrollmentCache.invalidate(List.of(userId));
+            attendanceReportService.attendanceWritten();
+            // Routines of a deleted teacher are removed with it
+            timetableCache.invalidate();
 
             return ResponseEntity.ok(Map.of(
                 "success", true,
@@ -1058,22 +1085,32 @@ public class AdminController {
                     .body(Map.of("error", "Access denied. Admin role required."));
             }
 
-            // Get real statistics
-            long totalStudents = userRepository.findByRole(UserRole.STUDENT).size();
-            long totalTeachers = userRepository.findByRole(UserRole.TEACHER).size();
+            // Everything below is computed by COUNT/GROUP BY queries; no rows are loaded
+            long totalStudents = 0;
+            long totalTeachers = 0;
+            for (Object[] row : userRepository.countGroupByRole()) {
+                if (row[0] == UserRole.STUDENT) {
+                    totalStudents = (Long) row[1];
+                } else if (row[0] == UserRole.TEACHER) {
+                    totalTeachers = (Long) row[1];
+                }
+            }
             
             // Calculate overall attendance
-            long totalAttendanceRecords = attendanceRepository.count();
-            long presentRecords = attendanceRepository.findAll().stream()
-                .filter(a -> "PRESENT".equals(a.getStatus()))
-                .count();
+            long totalAttendanceRecords = 0;
+            long presentRecords = 0;
+            for (Object[] row : attendanceRepository.countGroupByStatus()) {
+                long count = (Long) row[1];
+                totalAttendanceRecords += count;
+                if ("PRESENT".equals(row[0])) {
+                    presentRecords = count;
+                }
+            }
             double overallAttendanceRate = totalAttendanceRecords > 0 ? 
                 ((double) presentRecords / totalAttendanceRecords) * 100 : 0;
             
             // Get active classes count
-            long activeClasses = classSessionRepository.findAll().stream()
-                .filter(session -> session.getIsActive() != null && session.getIsActive())
-                .count();
+            long activeClasses = classSessionRepository.countByIsActiveTrue();
 
             Map<String, Object> overview = new HashMap<>();
             overview.put("totalStudents", totalStudents);
@@ -1093,7 +1130,11 @@ public class AdminController {
     }
 
     @GetMapping("/dashboard/attendance-trends")
-    public ResponseEntity<?> getAttendanceTrends(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> getAttendanceTrends(@RequestHeader("Authorization") String authHeader,
+                                                 @RequestParam(required = false) String courseCode,
+                                                 @RequestParam(required = false) String batch,
+                                                 @RequestParam(required = false) String dateRange,
+                                                 @RequestParam(defaultValue = "day") String granularity) {
         try {
             // Validate admin role
             if (!isAdminUser(authHeader)) {
@@ -1101,30 +1142,35 @@ public class AdminController {
                     .body(Map.of("error", "Access denied. Admin role required."));
             }
 
-            // Calculate attendance trends for different periods
-            List<Attendance> allAttendance = attendanceRepository.findAll();
-            
-            // Today's attendance (simplified - you can enhance with date filtering)
-            long totalToday = allAttendance.size();
-            long presentToday = allAttendance.stream()
-                .filter(a -> "PRESENT".equals(a.getStatus()))
-                .count();
-            double todayRate = totalToday > 0 ? ((double) presentToday / totalToday) * 100 : 0;
-
-            // This week and month would need more complex date filtering
-            // For now, using overall statistics with slight variations
-            double weekRate = Math.max(0, todayRate + (Math.random() * 4 - 2)); // ±2% variation
-            double monthRate = Math.max(0, todayRate + (Math.random() * 6 - 3)); // ±3% variation
+            String course = courseCode != null && !courseCode.equals("all") ? courseCode : null;
+            String batchFilter = batch != null && !batch.equals("all") ? batch : null;
 
+            // Today, this week and this month from the daily rollups (see AttendanceSummaryService)
             Map<String, Object> trends = new HashMap<>();
-            trends.put("today", Math.round(todayRate * 10.0) / 10.0);
-            trends.put("week", Math.round(weekRate * 10.0) / 10.0);
-            trends.put("month", Math.round(monthRate * 10.0) / 10.0);
+            attendanceReportService.getTrends(course, batchFilter).forEach((period, bucket) ->
+                trends.put(period, Math.round(bucket.getAttendanceRate() * 10.0) / 10.0));
 
-            return ResponseEntity.ok(Map.of(
-                "success", true,
-                "trends", trends
-            ));
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("trends", trends);
+
+            // Optional series of buckets for charts, e.g. dateRange=semester&granularity=week
+            if (dateRange != null) {
+                List<Map<String, Object>> series = new ArrayList<>();
+                for (AttendanceTrendBucket bucket : attendanceReportService.getTrendSeries(dateRange, granularity, course, batchFilter)) {
+                    Map<String, Object> point = new HashMap<>();
+                    point.put("periodStart", bucket.getPeriodStart().toString());
+                    point.put("attendanceRate", Math.round(bucket.getAttendanceRate() * 10.0) / 10.0);
+                    point.put("totalRecords", bucket.getTotalRecords());
+                    point.put("presentRecords", bucket.getPresentRecords());
+                    point.put("missedRecords", bucket.getMissedRecords());
+                    series.add(point);
+                }
+                response.put("granularity", granularity);
+                response.put("series", series);
+            }
+
+            return ResponseEntity.ok(response);
 
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -1133,7 +1179,9 @@ public class AdminController {
     }
 
     @GetMapping("/dashboard/low-attendance")
-    public ResponseEntity<?> getLowAttendanceClasses(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> getLowAttendanceClasses(@RequestHeader("Authorization") String authHeader,
+                                                     @RequestParam(required = false) Double threshold,
+                                                     @RequestParam(defaultValue = "false") boolean byBatch) {
         try {
             // Validate admin role
             if (!isAdminUser(authHeader)) {
@@ -1141,42 +1189,31 @@ public class AdminController {
                     .body(Map.of("error", "Access denied. Admin role required."));
             }
 
-            // Get courses with low attendance (below 75%)
-            List<Map<String, Object>> lowAttendanceClasses = new ArrayList<>();
-            List<Course> allCourses = courseRepository.findAll();
-
-            for (Course course : allCourses) {
-                List<Attendance> courseAttendance = attendanceRepository.findAll().stream()
-                    .filter(a -> course.getCode().equals(a.getCourseCode()))
-                    .collect(Collectors.toList());
+            double limit = threshold != null ? threshold : lowAttendanceThreshold;
 
-                if (!courseAttendance.isEmpty()) {
-                    long totalRecords = courseAttendance.size();
-                    long presentRecords = courseAttendance.stream()
-                        .filter(a -> "PRESENT".equals(a.getStatus()))
-                        .count();
-                    
-                    double attendanceRate = ((double) presentRecords / totalRecords) * 100;
-                    
-                    if (attendanceRate < 75.0) {
-                        // Get teacher name for this course (simplified)
-                        String teacherName = "Unknown Teacher"; // You can enhance this with proper teacher assignment lookup
-                        
-                        Map<String, Object> classData = new HashMap<>();
-                        classData.put("subject", course.getTitle());
-                        classData.put("courseCode", course.getCode());
-                        classData.put("teacher", teacherName);
-                        classData.put("attendanceRate", Math.round(attendanceRate * 10.0) / 10.0);
-                        classData.put("totalRecords", totalRecords);
-                        classData.put("presentRecords", presentRecords);
-                        
-                        lowAttendanceClasses.add(classData);
-                    }
+            // One GROUP BY over attendance, cached until the next attendance write
+            List<Map<String, Object>> lowAttendanceClasses = new ArrayList<>();
+            for (CourseAttendanceRate rate : attendanceReportService.findBelowThreshold(limit, byBatch)) {
+                // Get teacher name for this course (simplified)
+                String teacherName = "Unknown Teacher"; // You can enhance this with proper teacher assignment lookup
+
+                Map<String, Object> classData = new HashMap<>();
+                classData.put("subject", rate.getCourseTitle());
+                classData.put("courseCode", rate.getCourseCode());
+                classData.put("teacher", teacherName);
+                classData.put("attendanceRate", Math.round(rate.getAttendanceRate() * 10.0) / 10.0);
+                classData.put("totalRecords", rate.getTotalRecords());
+                classData.put("presentRecords", rate.getPresentRecords());
+                if (byBatch) {
+                    classData.put("batch", rate.getBatch());
                 }
+
+                lowAttendanceClasses.add(classData);
             }
 
             return ResponseEntity.ok(Map.of(
                 "success", true,
+                "threshold", limit,
                 "lowAttendanceClasses", lowAttendanceClasses
             ));
 
@@ -1187,7 +1224,8 @@ public class AdminController {
     }
 
     @GetMapping("/dashboard/recent-activity")
-    public ResponseEntity<?> getRecentActivity(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> getRecentActivity(@RequestHeader("Authorization") String authHeader,
+                                               @RequestParam(defaultValue = "8") int limit) {
         try {
             // Validate admin role
             if (!isAdminUser(authHeader)) {
@@ -1195,50 +1233,37 @@ public class AdminController {
                     .body(Map.of("error", "Access denied. Admin role required."));
             }
 
+            // Snapshot of the in-memory event feed, newest first; no database access
             List<Map<String, Object>> recentActivity = new ArrayList<>();
-
-            // Get recent user registrations (using userID as proxy for creation order)
-            List<User> recentUsers = userRepository.findAll().stream()
-                .sorted((a, b) -> b.getUserID().compareTo(a.getUserID()))
-                .limit(5)
-                .collect(Collectors.toList());
-
-            for (User user : recentUsers) {
+            for (ActivityFeed.ActivityEvent event : activityFeed.recent(Math.max(1, Math.min(limit, 100)))) {
                 Map<String, Object> activity = new HashMap<>();
-                activity.put("type", "user");
-                activity.put("message", "New " + user.getRole().toString().toLowerCase() + " " + 
-                           user.getFirstName() + " " + user.getLastName() + " added to system");
-                activity.put("time", "Recently"); // Simplified time display
-                activity.put("icon", "fas fa-user-plus");
-                activity.put("color", "success");
-                recentActivity.add(activity);
-            }
-
-            // Get recent attendance sessions (using sessionID as proxy for creation order)
-            List<ClassSession> recentSessions = classSessionRepository.findAll().stream()
-                .sorted((a, b) -> b.getSessionID().compareTo(a.getSessionID()))
-                .limit(3)
-                .collect(Collectors.toList());
-
-            for (ClassSession session : recentSessions) {
-                Optional<Course> course = courseRepository.findByCode(session.getCourseCode());
-                if (course.isPresent()) {
-                    Map<String, Object> activity = new HashMap<>();
-                    activity.put("type", "attendance");
-                    activity.put("message", course.get().getTitle() + " - Attendance session created");
-                    activity.put("time", "Recently"); // Simplified time display
-                    activity.put("icon", "fas fa-chart-line");
-                    activity.put("color", "info");
-                    recentActivity.add(activity);
+                activity.put("message", event.message());
+                activity.put("time", event.time().toString());
+                switch (event.type()) {
+                    case USER -> {
+                        activity.put("type", "user");
+                        activity.put("icon", "fas fa-user-plus");
+                        activity.put("color", "success");
+                    }
+                    case SESSION -> {
+                        activity.put("type", "attendance");
+                        activity.put("icon", "fas fa-chart-line");
+                        activity.put("color", "info");
+                    }
+                    case COURSE -> {
+                        activity.put("type", "course");
+                        activity.put("icon", "fas fa-book");
+                        activity.put("color", "primary");
+                    }
+                    case ROUTINE -> {
+                        activity.put("type", "routine");
+                        activity.put("icon", "fas fa-calendar-alt");
+                        activity.put("color", "warning");
+                    }
                 }
+                recentActivity.add(activity);
             }
 
-            // Sort all activities by time and limit to 8
-            recentActivity = recentActivity.stream()
-                .sorted((a, b) -> b.get("time").toString().compareTo(a.get("time").toString()))
-                .limit(8)
-                .collect(Collectors.toList());
-
             return ResponseEntity.ok(Map.of(
                 "success", true,
                 "recentActivity", recentActivity
@@ -1266,12 +1291,8 @@ public class AdminController {
                     .body(Map.of("success", false, "message", "Class session not found"));
             }
 
-            ClassSession session = sessionOpt.get();
-            
-            // Set session as inactive instead of deleting to preserve attendance records
-            session.setIsActive(false);
-            session.setStatus(SessionStatus.ENDED);
-            classSessionRepository.save(session);
+            // End the session instead of deleting it to preserve attendance records
+            attendanceService.stopSession(sessionId);
 
             return ResponseEntity.ok(Map.of(
                 "success", true,
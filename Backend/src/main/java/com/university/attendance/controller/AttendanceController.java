@@ -1,12 +1,15 @@
 package com.university.attendance.controller;
 
+import com.university.attendance.dto.AttendeeDetailsResponse;
 import com.university.attendance.dto.GenerateCodeResponse;
 import com.university.attendance.entity.Attendance;
 import com.university.attendance.entity.ClassSession;
 import com.university.attendance.service.AttendanceService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.HashMap;
 import java.util.List;
@@ -24,6 +27,9 @@ public class AttendanceController {
     @Autowired
     private com.university.attendance.service.LocationVerificationService locationVerificationService;
     
+    @Autowired
+    private com.university.attendance.service.AttendeeStreamService attendeeStreamService;
+    
     @Autowired
     private com.university.attendance.repository.ClassSessionRepository classSessionRepository;
 
@@ -53,6 +59,10 @@ public class AttendanceController {
         return ResponseEntity.ok(result);
     }
 
+    /**
+     * Mark a student present. The row is written behind in batches (see AttendanceWriteBehindQueue), so
+     * attendanceId is usually null in the response; the mark is journaled to disk before it is acknowledged.
+     */
     @PostMapping("/mark")
     public ResponseEntity<?> mark(@RequestParam String code, @RequestParam Long studentId, @RequestParam String courseCode) {
         Attendance a = attendanceService.markAttendance(code, studentId, courseCode);
@@ -68,10 +78,16 @@ public class AttendanceController {
     }
     
     @GetMapping("/attendees-details")
-    public ResponseEntity<List<Map<String, Object>>> getAttendeesWithDetails(@RequestParam Long sessionId) {
+    public ResponseEntity<List<AttendeeDetailsResponse>> getAttendeesWithDetails(@RequestParam Long sessionId) {
         return ResponseEntity.ok(attendanceService.getAttendeesWithDetails(sessionId));
     }
     
+    // Live roster: "attendee-marked" events as students check in, "session-ended" when the session stops
+    @GetMapping(value = "/attendees-stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAttendees(@RequestParam Long sessionId) {
+        return attendeeStreamService.subscribe(sessionId);
+    }
+    
     @GetMapping("/active-session")
     public ResponseEntity<?> getActiveSession(@RequestParam String courseCode) {
         return attendanceService.getActiveSession(courseCode)
@@ -190,7 +206,7 @@ public class AttendanceController {
             ));
             
             // Also check attendees for this session
-            List<Map<String, Object>> attendees = attendanceService.getAttendeesWithDetails(session.getSessionID());
+            List<AttendeeDetailsResponse> attendees = attendanceService.getAttendeesWithDetails(session.getSessionID());
             debug.put("attendeesCount", attendees.size());
             debug.put("attendees", attendees);
         }
@@ -251,6 +267,13 @@ public class AttendanceController {
         }
     }
     
+    // Verify a lecture's worth of check-ins in one call; responses are in request order
+    @PostMapping("/verify-locations")
+    public ResponseEntity<List<com.university.attendance.dto.LocationVerificationResponse>> verifyLocations(
+            @RequestBody List<com.university.attendance.dto.LocationVerificationRequest> requests) {
+        return ResponseEntity.ok(locationVerificationService.verifyLocations(requests));
+    }
+    
     @GetMapping("/debug-session-location")
     public ResponseEntity<Map<String, Object>> debugSessionLocation(@RequestParam String accessCode) {
         Map<String, Object> debug = new HashMap<>();
@@ -343,15 +366,7 @@ public class AttendanceController {
             Optional<ClassSession> sessionOpt = attendanceService.getActiveSession("CS101"); // This might need the actual course code
             if (!sessionOpt.isPresent()) {
                 // Try to get by ID directly
-                ClassSession session = attendanceService.getSession(sessionId);
-                session.setTeacherLatitude(latitude);
-                session.setTeacherLongitude(longitude);
-                if (location != null) {
-                    session.setLocation(location);
-                }
-                
-                // Save using repository directly
-                ClassSession updatedSession = classSessionRepository.save(session);
+                ClassSession updatedSession = attendanceService.updateSessionLocation(sessionId, latitude, longitude, location);
                 
                 response.put("success", true);
                 response.put("message", "Location updated successfully");
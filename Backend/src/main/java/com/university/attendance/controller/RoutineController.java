@@ -3,6 +3,9 @@ package com.university.attendance.controller;
 import com.university.attendance.dto.*;
 import com.university.attendance.entity.*;
 import com.university.attendance.repository.*;
+import com.university.attendance.service.ActivityFeed;
+import com.university.attendance.service.RoutineConflictIndex;
+import com.university.attendance.service.TimetableCache;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -38,6 +41,12 @@ public class RoutineController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private TimetableCache timetableCache;
+
+    @Autowired
+    private ActivityFeed activityFeed;
+
     @PostMapping("/routine")
     public ResponseEntity<?> createRoutine(@Valid @RequestBody CreateRoutineRequest request) {
         try {
@@ -85,10 +94,20 @@ public class RoutineController {
                     .body(Map.of("success", false, "message", "Routine already exists for this CourseID, Day, CourseTime and StudentBatch combination"));
             }
 
+            // Reject slots that overlap another routine of the same teacher or batch
+            Optional<RoutineConflictIndex.RoutineConflict> overlap = timetableCache.findOverlap(
+                teacher.get().getUserID(), request.getStudentBatch(), request.getDay(), courseTime, endTime);
+            if (overlap.isPresent()) {
+                return ResponseEntity.badRequest()
+                    .body(Map.of("success", false, "message", overlap.get().getDescription(), "conflict", overlap.get()));
+            }
+
             // Create and save routine
             Routine routine = new Routine(course.get(), courseTime, endTime, request.getDay(), 
                                         teacher.get(), request.getStudentBatch());
             routine = routineRepository.save(routine);
+            timetableCache.invalidate();
+            activityFeed.routineCreated(course.get().getCode(), request.getDay(), request.getStudentBatch());
 
             // Create response with the inserted routine details
             RoutineResponse response = new RoutineResponse(
@@ -229,7 +248,7 @@ public class RoutineController {
             }
 
             // Query Routine table where StudentBatch = student.Batch
-            List<Routine> routines = routineRepository.findRoutinesWithDetailsForBatch(studentBatch);
+            List<RoutineResponse> routines = timetableCache.getBatchTimetable(studentBatch);
             System.out.println("Found " + routines.size() + " routines for batch " + studentBatch); // Debug log
 
             // Convert to response format (Day, CourseTime, EndTime, CourseTitle, TeacherName)
@@ -239,20 +258,17 @@ public class RoutineController {
                     scheduleItem.put("day", routine.getDay());
                     scheduleItem.put("courseTime", routine.getCourseTime().toString());
                     scheduleItem.put("endTime", routine.getEndTime().toString());
-                    scheduleItem.put("courseTitle", routine.getCourse().getTitle());
-                    scheduleItem.put("courseCode", routine.getCourse().getCode());
-                    scheduleItem.put("teacherName", routine.getTeacher().getName());
-                    scheduleItem.put("routineId", routine.getRoutineID());
+                    scheduleItem.put("courseTitle", routine.getCourseTitle());
+                    scheduleItem.put("courseCode", routine.getCourseCode());
+                    scheduleItem.put("teacherName", routine.getTeacherName());
+                    scheduleItem.put("routineId", routine.getRoutineId());
                     scheduleItem.put("studentBatch", routine.getStudentBatch());
                     scheduleItem.put("createdAt", routine.getCreatedAt());
                     
                     // Add day order for proper sorting on frontend
-                    String[] dayOrder = {"Monday", "Tuesday", "Wednesday", "Thursday", "Friday", "Saturday", "Sunday"};
-                    for (int i = 0; i < dayOrder.length; i++) {
-                        if (dayOrder[i].equals(routine.getDay())) {
-                            scheduleItem.put("dayOrder", i);
-                            break;
-                        }
+                    int dayOrder = TimetableCache.dayOrder(routine.getDay());
+                    if (dayOrder < 7) {
+                        scheduleItem.put("dayOrder", dayOrder);
                     }
                     
                     return scheduleItem;
@@ -289,7 +305,7 @@ public class RoutineController {
             }
             
             // Query Routine table where StudentBatch = batchId
-            List<Routine> routines = routineRepository.findRoutinesWithDetailsForBatch(batchId.trim());
+            List<RoutineResponse> routines = timetableCache.getBatchTimetable(batchId.trim());
             System.out.println("Found " + routines.size() + " routines for batch " + batchId); // Debug log
 
             // Convert to response format
@@ -299,20 +315,17 @@ public class RoutineController {
                     scheduleItem.put("day", routine.getDay());
                     scheduleItem.put("courseTime", routine.getCourseTime().toString());
                     scheduleItem.put("endTime", routine.getEndTime().toString());
-                    scheduleItem.put("courseTitle", routine.getCourse().getTitle());
-                    scheduleItem.put("courseCode", routine.getCourse().getCode());
-                    scheduleItem.put("teacherName", routine.getTeacher().getName());
-                    scheduleItem.put("routineId", routine.getRoutineID());
+                    scheduleItem.put("courseTitle", routine.getCourseTitle());
+                    scheduleItem.put("courseCode", routine.getCourseCode());
+                    scheduleItem.put("teacherName", routine.getTeacherName());
+                    scheduleItem.put("routineId", routine.getRoutineId());
                     scheduleItem.put("studentBatch", routine.getStudentBatch());
                     scheduleItem.put("createdAt", routine.getCreatedAt());
                     
                     // Add day order for proper sorting on frontend
-                    String[] dayOrder = {"Monday", "Tuesday", "Wednesday", "Thursday", "Friday", "Saturday", "Sunday"};
-                    for (int i = 0; i < dayOrder.length; i++) {
-                        if (dayOrder[i].equals(routine.getDay())) {
-                            scheduleItem.put("dayOrder", i);
-                            break;
-                        }
+                    int dayOrder = TimetableCache.dayOrder(routine.getDay());
+                    if (dayOrder < 7) {
+                        scheduleItem.put("dayOrder", dayOrder);
                     }
                     
                     return scheduleItem;
@@ -348,7 +361,7 @@ public class RoutineController {
             }
 
             // Query Routine table where TeacherID = teacherId
-            List<Routine> routines = routineRepository.findRoutinesWithDetailsForTeacher(teacherId);
+            List<RoutineResponse> routines = timetableCache.getTeacherTimetable(teacherId);
 
             // Convert to response format (Day, CourseTime, EndTime, CourseTitle, StudentBatch)
             List<Map<String, Object>> weeklySchedule = routines.stream()
@@ -357,11 +370,11 @@ public class RoutineController {
                     scheduleItem.put("day", routine.getDay());
                     scheduleItem.put("courseTime", routine.getCourseTime().toString());
                     scheduleItem.put("endTime", routine.getEndTime().toString());
-                    scheduleItem.put("courseTitle", routine.getCourse().getTitle());
+                    scheduleItem.put("courseTitle", routine.getCourseTitle());
                     scheduleItem.put("studentBatch", routine.getStudentBatch());
-                    scheduleItem.put("courseCode", routine.getCourse().getCode());
-                    scheduleItem.put("routineId", routine.getRoutineID());
-                    scheduleItem.put("teacherName", routine.getTeacher().getName());
+                    scheduleItem.put("courseCode", routine.getCourseCode());
+                    scheduleItem.put("routineId", routine.getRoutineId());
+                    scheduleItem.put("teacherName", routine.getTeacherName());
                     return scheduleItem;
                 })
                 .collect(java.util.stream.Collectors.toList());
@@ -420,8 +433,7 @@ public class RoutineController {
             
             // Check routines for this batch if batch exists
             if (effectiveBatch != null) {
-                List<Routine> routines = routineRepository.findRoutinesWithDetailsForBatch(effectiveBatch);
-                debug.put("routinesForBatch", routines.size());
+                debug.put("routinesForBatch", timetableCache.getBatchTimetable(effectiveBatch).size());
             }
             
             return ResponseEntity.ok(Map.of("success", true, "debug", debug));
@@ -4,6 +4,7 @@ import com.university.attendance.dto.RoutineResponse;
 import com.university.attendance.entity.*;
 import com.university.attendance.repository.*;
 import com.university.attendance.service.CourseService;
+import com.university.attendance.service.TimetableCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -13,7 +14,6 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/student")
@@ -27,7 +27,7 @@ public class StudentController {
     private UserRepository userRepository;
 
     @Autowired
-    private RoutineRepository routineRepository;
+    private TimetableCache timetableCache;
 
     @GetMapping("/courses")
     public ResponseEntity<?> getStudentCourses(@RequestHeader("Authorization") String authHeader) {
@@ -59,24 +59,7 @@ public class StudentController {
                     .body(Map.of("success", false, "message", "Access denied. Student authentication required."));
             }
 
-            List<Routine> routines = routineRepository.findRoutinesWithDetailsForBatch(studentBatch);
-            
-            List<RoutineResponse> responses = routines.stream()
-                .map(routine -> new RoutineResponse(
-                    routine.getRoutineID(),
-                    routine.getCourse().getId(),
-                    routine.getCourse().getCode(),
-                    routine.getCourse().getTitle(),
-                    routine.getCourseTime(),
-                    routine.getEndTime(),
-                    routine.getDay(),
-                    routine.getTeacher().getUserID(),
-                    routine.getTeacher().getName(),
-                    routine.getTeacher().getUsername(),
-                    routine.getStudentBatch(),
-                    routine.getCreatedAt()
-                ))
-                .collect(Collectors.toList());
+            List<RoutineResponse> responses = timetableCache.getBatchTimetable(studentBatch);
 
             return ResponseEntity.ok(Map.of(
                 "success", true,
@@ -104,24 +87,7 @@ public class StudentController {
             String today = java.time.LocalDate.now().getDayOfWeek().name();
             String dayName = today.charAt(0) + today.substring(1).toLowerCase(); // Convert to proper case
 
-            List<Routine> routines = routineRepository.findByStudentBatchAndDay(studentBatch, dayName);
-            
-            List<RoutineResponse> responses = routines.stream()
-                .map(routine -> new RoutineResponse(
-                    routine.getRoutineID(),
-                    routine.getCourse().getId(),
-                    routine.getCourse().getCode(),
-                    routine.getCourse().getTitle(),
-                    routine.getCourseTime(),
-                    routine.getEndTime(),
-                    routine.getDay(),
-                    routine.getTeacher().getUserID(),
-                    routine.getTeacher().getName(),
-                    routine.getTeacher().getUsername(),
-                    routine.getStudentBatch(),
-                    routine.getCreatedAt()
-                ))
-                .collect(Collectors.toList());
+            List<RoutineResponse> responses = timetableCache.getBatchTimetable(studentBatch, dayName);
 
             return ResponseEntity.ok(Map.of(
                 "success", true,
@@ -4,6 +4,7 @@ import com.university.attendance.dto.RoutineResponse;
 import com.university.attendance.entity.*;
 import com.university.attendance.repository.*;
 import com.university.attendance.service.CourseService;
+import com.university.attendance.service.TimetableCache;
 import com.university.attendance.util.JwtUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -14,7 +15,6 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/teacher")
@@ -28,7 +28,7 @@ public class TeacherController {
     private UserRepository userRepository;
 
     @Autowired
-    private RoutineRepository routineRepository;
+    private TimetableCache timetableCache;
 
     @Autowired
     private JwtUtil jwtUtil;
@@ -63,24 +63,7 @@ public class TeacherController {
                     .body(Map.of("success", false, "message", "Access denied. Teacher authentication required."));
             }
 
-            List<Routine> routines = routineRepository.findRoutinesWithDetailsForTeacher(teacherUserId);
-            
-            List<RoutineResponse> responses = routines.stream()
-                .map(routine -> new RoutineResponse(
-                    routine.getRoutineID(),
-                    routine.getCourse().getId(),
-                    routine.getCourse().getCode(),
-                    routine.getCourse().getTitle(),
-                    routine.getCourseTime(),
-                    routine.getEndTime(),
-                    routine.getDay(),
-                    routine.getTeacher().getUserID(),
-                    routine.getTeacher().getName(),
-                    routine.getTeacher().getUsername(),
-                    routine.getStudentBatch(),
-                    routine.getCreatedAt()
-                ))
-                .collect(Collectors.toList());
+            List<RoutineResponse> responses = timetableCache.getTeacherTimetable(teacherUserId);
 
             return ResponseEntity.ok(Map.of(
                 "success", true,
@@ -107,24 +90,7 @@ public class TeacherController {
             String today = java.time.LocalDate.now().getDayOfWeek().name();
             String dayName = today.charAt(0) + today.substring(1).toLowerCase(); // Convert to proper case
 
-            List<Routine> routines = routineRepository.findByTeacher_UserIDAndDay(teacherUserId, dayName);
-            
-            List<RoutineResponse> responses = routines.stream()
-                .map(routine -> new RoutineResponse(
-                    routine.getRoutineID(),
-                    routine.getCourse().getId(),
-                    routine.getCourse().getCode(),
-                    routine.getCourse().getTitle(),
-                    routine.getCourseTime(),
-                    routine.getEndTime(),
-                    routine.getDay(),
-                    routine.getTeacher().getUserID(),
-                    routine.getTeacher().getName(),
-                    routine.getTeacher().getUsername(),
-                    routine.getStudentBatch(),
-                    routine.getCreatedAt()
-                ))
-                .collect(Collectors.toList());
+            List<RoutineResponse> responses = timetableCache.getTeacherTimetable(teacherUserId, dayName);
 
             return ResponseEntity.ok(Map.of(
                 "success", true,
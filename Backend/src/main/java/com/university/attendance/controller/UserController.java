@@ -13,13 +13,19 @@ import com.university.attendance.entity.Teacher;
 import com.university.attendance.entity.Student;
 import com.university.attendance.entity.UserRole;
 import com.university.attendance.entity.Attendance;
+import com.university.attendance.entity.AttendanceSummary;
 
 import com.university.attendance.repository.CourseRepository;
 import com.university.attendance.repository.EnrollmentRepository;
 import com.university.attendance.entity.Course;
 import com.university.attendance.entity.Enrollment;
 import com.university.attendance.entity.EnrollmentRole;
+import com.university.attendance.dto.ClassAttendanceSummary;
+import com.university.attendance.dto.StudentAttendanceCount;
+import com.university.attendance.service.AttendanceSummaryService;
+import com.university.attendance.service.TeacherAnalyticsService;
 import com.university.attendance.service.FileStorageService;
+import com.university.attendance.service.TimetableCache;
 
 import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
@@ -27,6 +33,7 @@ import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -55,9 +62,21 @@ public class UserController {
     @Autowired
     private EnrollmentRepository enrollmentRepository;
 
+    @Autowired
+    private com.university.attendance.service.EnrollmentCache enrollmentCache;
+
     @Autowired
     private FileStorageService fileStorageService;
 
+    @Autowired
+    private AttendanceSummaryService attendanceSummaryService;
+
+    @Autowired
+    private TeacherAnalyticsService teacherAnalyticsService;
+
+    @Autowired
+    private TimetableCache timetableCache;
+
     @GetMapping("/debug/{userId}")
     public ResponseEntity<?> debugUser(@PathVariable Long userId) {
         try {
@@ -272,6 +291,10 @@ public class UserController {
             // Save updated user
             System.out.println("Saving user changes...");
             User savedUser = userRepository.save(managedUser);
+            if (!savedUser.getName().equals(originalName)) {
+                // Teacher names are part of the cached timetables
+                timetableCache.invalidate();
+            }
             System.out.println("User saved successfully: " + savedUser.getUserID());            return ResponseEntity.ok(Map.of(
                 "message", "Profile updated successfully",
                 "user", Map.of(
@@ -316,16 +339,13 @@ public class UserController {
                     .body(Map.of("error", "User is not a student"));
             }
 
-            // Get all attendance records for this student
-            List<Attendance> studentAttendanceRecords = attendanceRepository.findAll().stream()
-                .filter(attendance -> attendance.getStudentID().equals(userId))
-                .collect(java.util.stream.Collectors.toList());
-
-            // Calculate statistics
-            long totalClasses = studentAttendanceRecords.size();
-            long attendedClasses = studentAttendanceRecords.stream()
-                .filter(attendance -> "PRESENT".equals(attendance.getStatus()))
-                .count();
+            // Calculate statistics from the per-course counters
+            long totalClasses = 0;
+            long attendedClasses = 0;
+            for (AttendanceSummary summary : attendanceSummaryService.getSummaries(userId)) {
+                totalClasses += summary.getTotal();
+                attendedClasses += summary.getAttended();
+            }
             long missedClasses = totalClasses - attendedClasses;
             double attendanceRate = totalClasses > 0 ? 
                 ((double) attendedClasses / totalClasses) * 100 : 0;
@@ -366,43 +386,37 @@ public class UserController {
                 return ResponseEntity.badRequest().body(Map.of("error", "User is not a student"));
             }
 
-            // Get all attendance records for this student
-            List<Attendance> allRecords = attendanceRepository.findAll().stream()
-                .filter(a -> a.getStudentID().equals(userId))
-                .collect(Collectors.toList());
+            boolean allCourses = courseCode == null || courseCode.equals("all");
+            List<AttendanceSummary> summaries = attendanceSummaryService.getSummaries(userId);
 
-            // Filter by course if specified
-            List<Attendance> filteredRecords = allRecords;
-            if (courseCode != null && !courseCode.equals("all")) {
-                filteredRecords = allRecords.stream()
-                    .filter(a -> courseCode.equals(a.getCourseCode()))
-                    .collect(Collectors.toList());
-            }
+            // Only this student's rows are read, through the studentID index
+            List<Attendance> filteredRecords = allCourses
+                ? attendanceRepository.findByStudentIDOrderByTimestampAsc(userId)
+                : attendanceRepository.findByStudentIDAndCourseCodeOrderByTimestampAsc(userId, courseCode);
 
-            // Get available courses for this student
-            List<String> studentCourses = allRecords.stream()
-                .map(Attendance::getCourseCode)
-                .filter(code -> code != null)
+            // Get available courses for this student, resolving all titles in one query
+            List<String> studentCourses = summaries.stream()
+                .map(AttendanceSummary::getCourseCode)
                 .distinct()
                 .collect(Collectors.toList());
+            Map<String, String> courseTitles = courseRepository.findByCodeIn(studentCourses).stream()
+                .collect(Collectors.toMap(Course::getCode, Course::getTitle, (a, b) -> a));
 
             List<Map<String, Object>> courses = new ArrayList<>();
             courses.add(Map.of("id", "all", "name", "All Subjects"));
             for (String code : studentCourses) {
-                Optional<Course> courseOpt = courseRepository.findByCode(code);
-                if (courseOpt.isPresent()) {
-                    Course course = courseOpt.get();
-                    courses.add(Map.of("id", code, "name", course.getTitle()));
-                } else {
-                    courses.add(Map.of("id", code, "name", code));
-                }
+                courses.add(Map.of("id", code, "name", courseTitles.getOrDefault(code, code)));
             }
 
-            // Calculate statistics
-            long totalClasses = filteredRecords.size();
-            long attendedClasses = filteredRecords.stream()
-                .filter(a -> "PRESENT".equalsIgnoreCase(a.getStatus()))
-                .count();
+            // Calculate statistics from the per-course counters
+            long totalClasses = 0;
+            long attendedClasses = 0;
+            for (AttendanceSummary summary : summaries) {
+                if (allCourses || courseCode.equals(summary.getCourseCode())) {
+                    totalClasses += summary.getTotal();
+                    attendedClasses += summary.getAttended();
+                }
+            }
             long missedClasses = totalClasses - attendedClasses;
             double attendanceRate = totalClasses > 0 ? ((double) attendedClasses / totalClasses) * 100 : 0;
 
@@ -424,10 +438,7 @@ public class UserController {
                 // Get course name
                 String courseName = record.getCourseCode();
                 if (record.getCourseCode() != null) {
-                    Optional<Course> courseOpt = courseRepository.findByCode(record.getCourseCode());
-                    if (courseOpt.isPresent()) {
-                        courseName = courseOpt.get().getTitle();
-                    }
+                    courseName = courseTitles.getOrDefault(record.getCourseCode(), record.getCourseCode());
                 }
                 recordData.put("subject", courseName);
                 attendanceData.add(recordData);
@@ -487,51 +498,30 @@ public class UserController {
                 return ResponseEntity.ok(response);
             }
 
-            // Get course codes and names for courses taught by teacher
-            List<String> teacherCourseCodes = new ArrayList<>();
+            // Get course codes and names for courses taught by teacher (one lookup, enrollment order)
+            Map<String, String> courseTitles = teacherCourseTitles(teacherCourseIds);
+            List<String> teacherCourseCodes = new ArrayList<>(courseTitles.keySet());
             List<Map<String, Object>> courses = new ArrayList<>();
             courses.add(Map.of("id", "all", "name", "All Subjects"));
-            
-            for (Long courseId : teacherCourseIds) {
-                Optional<Course> courseOpt = courseRepository.findById(courseId);
-                if (courseOpt.isPresent()) {
-                    Course course = courseOpt.get();
-                    teacherCourseCodes.add(course.getCode());
-                    courses.add(Map.of("id", course.getCode(), "name", course.getTitle()));
-                }
-            }
-
-            // Get all attendance records for courses taught by this teacher
-            List<Attendance> allRecords = attendanceRepository.findAll().stream()
-                .filter(a -> teacherCourseCodes.contains(a.getCourseCode()))
-                .collect(Collectors.toList());
+            courseTitles.forEach((code, title) -> courses.add(Map.of("id", code, "name", title)));
 
             // Filter by course if specified
-            List<Attendance> filteredRecords = allRecords;
+            List<String> filteredCourseCodes = teacherCourseCodes;
             if (courseCode != null && !courseCode.equals("all")) {
-                filteredRecords = allRecords.stream()
-                    .filter(a -> courseCode.equals(a.getCourseCode()))
-                    .collect(Collectors.toList());
+                filteredCourseCodes = teacherCourseCodes.contains(courseCode) ? List.of(courseCode) : List.of();
             }
 
+            // Classes are (course, day) buckets from the daily rollups, newest first
+            List<ClassAttendanceSummary> classes = teacherAnalyticsService.getClasses(filteredCourseCodes);
+
             // Calculate overall statistics
-            long totalClasses = filteredRecords.stream()
-                .collect(Collectors.groupingBy(a -> a.getCourseCode() + "_" + 
-                    DateTimeFormatter.ofPattern("yyyy-MM-dd").withZone(ZoneId.systemDefault()).format(a.getTimestamp())))
-                .size();
-            
-            long totalPresent = filteredRecords.stream()
-                .filter(a -> "PRESENT".equalsIgnoreCase(a.getStatus()))
-                .count();
-            
-            long totalRecords = filteredRecords.size();
+            long totalClasses = classes.size();
+            long totalPresent = classes.stream().mapToLong(ClassAttendanceSummary::getPresentRecords).sum();
+            long totalRecords = classes.stream().mapToLong(ClassAttendanceSummary::getExpectedRecords).sum();
             double avgAttendance = totalRecords > 0 ? ((double) totalPresent / totalRecords) * 100 : 0;
             
             // Get unique students count
-            long totalStudents = filteredRecords.stream()
-                .map(Attendance::getStudentID)
-                .distinct()
-                .count();
+            long totalStudents = teacherAnalyticsService.countStudents(filteredCourseCodes);
 
             Map<String, Object> statistics = new HashMap<>();
             statistics.put("totalClasses", totalClasses);
@@ -541,75 +531,27 @@ public class UserController {
 
             // Prepare class-wise attendance data (group by course and date)
             List<Map<String, Object>> attendanceData = new ArrayList<>();
-            DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd").withZone(ZoneId.systemDefault());
-            
-            Map<String, List<Attendance>> groupedByClassDate = filteredRecords.stream()
-                .collect(Collectors.groupingBy(a -> a.getCourseCode() + "_" + dateFormatter.format(a.getTimestamp())));
-            
-            for (Map.Entry<String, List<Attendance>> entry : groupedByClassDate.entrySet()) {
-                List<Attendance> classRecords = entry.getValue();
-                if (!classRecords.isEmpty()) {
-                    Attendance firstRecord = classRecords.get(0);
-                    long present = classRecords.stream()
-                        .filter(a -> "PRESENT".equalsIgnoreCase(a.getStatus()))
-                        .count();
-                    long total = classRecords.size();
-                    double percentage = total > 0 ? ((double) present / total) * 100 : 0;
-                    
-                    // Get course name
-                    String courseName = firstRecord.getCourseCode();
-                    Optional<Course> courseOpt = courseRepository.findByCode(firstRecord.getCourseCode());
-                    if (courseOpt.isPresent()) {
-                        courseName = courseOpt.get().getTitle();
-                    }
-                    
-                    Map<String, Object> classData = new HashMap<>();
-                    classData.put("date", dateFormatter.format(firstRecord.getTimestamp()));
-                    classData.put("subject", courseName);
-                    classData.put("present", present);
-                    classData.put("total", total);
-                    classData.put("percentage", Math.round(percentage * 10.0) / 10.0);
-                    attendanceData.add(classData);
-                }
+            for (ClassAttendanceSummary classDay : classes) {
+                Map<String, Object> classData = new HashMap<>();
+                classData.put("date", classDay.getDay().toString());
+                classData.put("subject", courseTitles.getOrDefault(classDay.getCourseCode(), classDay.getCourseCode()));
+                classData.put("present", classDay.getPresentRecords());
+                classData.put("total", classDay.getExpectedRecords());
+                classData.put("percentage", Math.round(classDay.getAttendanceRate() * 10.0) / 10.0);
+                attendanceData.add(classData);
             }
-            
-            // Sort by date descending
-            attendanceData.sort((a, b) -> ((String) b.get("date")).compareTo((String) a.get("date")));
 
-            // Prepare student performance data
+            // Prepare student performance data (one GROUP BY, names resolved in one lookup)
             List<Map<String, Object>> studentList = new ArrayList<>();
-            Map<Long, List<Attendance>> studentRecords = filteredRecords.stream()
-                .collect(Collectors.groupingBy(Attendance::getStudentID));
-            
-            for (Map.Entry<Long, List<Attendance>> entry : studentRecords.entrySet()) {
-                Long studentId = entry.getKey();
-                List<Attendance> studentAttendance = entry.getValue();
-                
-                Optional<User> studentOpt = userRepository.findById(studentId);
-                if (studentOpt.isPresent()) {
-                    User student = studentOpt.get();
-                    
-                    long attendance = studentAttendance.stream()
-                        .filter(a -> "PRESENT".equalsIgnoreCase(a.getStatus()))
-                        .count();
-                    long total = studentAttendance.size();
-                    double percentage = total > 0 ? ((double) attendance / total) * 100 : 0;
-                    
-                    // Get student roll number from student entity if available
-                    String rollNo = "N/A";
-                    Optional<Student> studentEntityOpt = studentRepository.findById(studentId);
-                    if (studentEntityOpt.isPresent()) {
-                        rollNo = studentId.toString(); // Use ID as roll number for now
-                    }
-                    
-                    Map<String, Object> studentData = new HashMap<>();
-                    studentData.put("name", student.getName());
-                    studentData.put("rollNo", rollNo);
-                    studentData.put("attendance", attendance);
-                    studentData.put("total", total);
-                    studentData.put("percentage", Math.round(percentage * 10.0) / 10.0);
-                    studentList.add(studentData);
-                }
+            for (StudentAttendanceCount student : teacherAnalyticsService.getStudents(filteredCourseCodes)) {
+                Map<String, Object> studentData = new HashMap<>();
+                studentData.put("name", student.getName());
+                // Use ID as roll number for now
+                studentData.put("rollNo", student.isStudentRecord() ? student.getStudentId().toString() : "N/A");
+                studentData.put("attendance", student.getPresentRecords());
+                studentData.put("total", student.getTotalRecords());
+                studentData.put("percentage", Math.round(student.getAttendanceRate() * 10.0) / 10.0);
+                studentList.add(studentData);
             }
             
             // Sort students by attendance percentage descending
@@ -671,113 +613,65 @@ public class UserController {
             }
 
             // Get course codes for courses taught by teacher
-            List<String> teacherCourseCodes = new ArrayList<>(); 
-            for (Long courseId : teacherCourseIds) {
-                Optional<Course> courseOpt = courseRepository.findById(courseId);
-                if (courseOpt.isPresent()) {
-                    teacherCourseCodes.add(courseOpt.get().getCode());
-                }
-            }
+            Map<String, String> courseTitles = teacherCourseTitles(teacherCourseIds);
+            List<String> teacherCourseCodes = new ArrayList<>(courseTitles.keySet());
 
-            // Get all attendance records for courses taught by this teacher
-            List<Attendance> allRecords = attendanceRepository.findAll().stream()
-                .filter(a -> teacherCourseCodes.contains(a.getCourseCode()))
-                .collect(Collectors.toList());
+            // Every class of the teacher's courses as (course, day) buckets from the daily rollups, newest first
+            List<ClassAttendanceSummary> classes = teacherAnalyticsService.getClasses(teacherCourseCodes);
 
             // Calculate total unique students
-            long totalStudents = allRecords.stream()
-                .map(Attendance::getStudentID)
-                .distinct()
-                .count();
+            long totalStudents = teacherAnalyticsService.countStudents(teacherCourseCodes);
 
-            // Calculate classes this week (group by course and date for current week)
-            java.time.LocalDate now = java.time.LocalDate.now();
-            java.time.LocalDate startOfWeek = now.with(java.time.DayOfWeek.MONDAY);
-            java.time.LocalDate endOfWeek = startOfWeek.plusDays(6);
-            
-            long classesThisWeek = allRecords.stream()
-                .filter(a -> {
-                    java.time.LocalDate recordDate = a.getTimestamp().atZone(ZoneId.systemDefault()).toLocalDate();
-                    return !recordDate.isBefore(startOfWeek) && !recordDate.isAfter(endOfWeek);
-                })
-                .collect(Collectors.groupingBy(a -> a.getCourseCode() + "_" + 
-                    DateTimeFormatter.ofPattern("yyyy-MM-dd").withZone(ZoneId.systemDefault()).format(a.getTimestamp())))
-                .size();
-
-            // Calculate today's classes
+            // Calculate classes this week and today
             java.time.LocalDate today = java.time.LocalDate.now();
-            long todayClasses = allRecords.stream()
-                .filter(a -> {
-                    java.time.LocalDate recordDate = a.getTimestamp().atZone(ZoneId.systemDefault()).toLocalDate();
-                    return recordDate.equals(today);
-                })
-                .collect(Collectors.groupingBy(a -> a.getCourseCode()))
-                .size();
+            java.time.LocalDate startOfWeek = today.with(java.time.DayOfWeek.MONDAY);
+            long classesThisWeek = classes.stream()
+                .filter(classDay -> !classDay.getDay().isBefore(startOfWeek))
+                .count();
+            long todayClasses = classes.stream()
+                .filter(classDay -> classDay.getDay().equals(today))
+                .count();
 
             // Calculate average attendance
-            long totalPresent = allRecords.stream()
-                .filter(a -> "PRESENT".equalsIgnoreCase(a.getStatus()))
-                .count();
-            double averageAttendance = allRecords.size() > 0 ? 
-                ((double) totalPresent / allRecords.size()) * 100 : 0;
+            long totalPresent = classes.stream().mapToLong(ClassAttendanceSummary::getPresentRecords).sum();
+            long totalRecords = classes.stream().mapToLong(ClassAttendanceSummary::getExpectedRecords).sum();
+            double averageAttendance = totalRecords > 0 ? ((double) totalPresent / totalRecords) * 100 : 0;
 
             // Generate recent activities (last 5 class sessions)
             List<Map<String, Object>> recentActivities = new ArrayList<>();
-            Map<String, List<Attendance>> classSessions = allRecords.stream()
-                .collect(Collectors.groupingBy(a -> a.getCourseCode() + "_" + 
-                    DateTimeFormatter.ofPattern("yyyy-MM-dd").withZone(ZoneId.systemDefault()).format(a.getTimestamp())));
-            
             DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd").withZone(ZoneId.systemDefault());
             DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm").withZone(ZoneId.systemDefault());
-            
-            classSessions.entrySet().stream()
-                .sorted((e1, e2) -> {
-                    Attendance a1 = e1.getValue().get(0);
-                    Attendance a2 = e2.getValue().get(0);
-                    return a2.getTimestamp().compareTo(a1.getTimestamp());
-                })
-                .limit(5)
-                .forEach(entry -> {
-                    List<Attendance> classRecords = entry.getValue();
-                    if (!classRecords.isEmpty()) {
-                        Attendance firstRecord = classRecords.get(0);
-                        long present = classRecords.stream()
-                            .filter(a -> "PRESENT".equalsIgnoreCase(a.getStatus()))
-                            .count();
-                        
-                        // Get course name
-                        String courseName = firstRecord.getCourseCode();
-                        Optional<Course> courseOpt = courseRepository.findByCode(firstRecord.getCourseCode());
-                        if (courseOpt.isPresent()) {
-                            courseName = courseOpt.get().getTitle();
-                        }
-                        
-                        Map<String, Object> activity = new HashMap<>();
-                        activity.put("type", "attendance");
-                        activity.put("icon", "fas fa-check-circle");
-                        activity.put("color", "success");
-                        activity.put("title", courseName + " - Attendance Completed");
-                        activity.put("description", present + " students marked present");
-                        activity.put("date", dateFormatter.format(firstRecord.getTimestamp()));
-                        activity.put("time", timeFormatter.format(firstRecord.getTimestamp()));
-                        
-                        // Calculate relative time
-                        java.time.Duration duration = java.time.Duration.between(firstRecord.getTimestamp(), java.time.Instant.now());
-                        long hours = duration.toHours();
-                        long days = duration.toDays();
-                        String timeAgo;
-                        if (days > 0) {
-                            timeAgo = days + (days == 1 ? " day ago" : " days ago");
-                        } else if (hours > 0) {
-                            timeAgo = hours + (hours == 1 ? " hour ago" : " hours ago");
-                        } else {
-                            timeAgo = "Recently";
-                        }
-                        activity.put("timeAgo", timeAgo);
-                        
-                        recentActivities.add(activity);
-                    }
-                });
+            java.time.Instant now = java.time.Instant.now();
+
+            for (ClassAttendanceSummary classDay : teacherAnalyticsService.getRecentClasses(classes, 5)) {
+                String courseName = courseTitles.getOrDefault(classDay.getCourseCode(), classDay.getCourseCode());
+                java.time.Instant firstMarkedAt = classDay.getFirstMarkedAt();
+
+                Map<String, Object> activity = new HashMap<>();
+                activity.put("type", "attendance");
+                activity.put("icon", "fas fa-check-circle");
+                activity.put("color", "success");
+                activity.put("title", courseName + " - Attendance Completed");
+                activity.put("description", classDay.getPresentRecords() + " students marked present");
+                activity.put("date", dateFormatter.format(firstMarkedAt));
+                activity.put("time", timeFormatter.format(firstMarkedAt));
+
+                // Calculate relative time
+                java.time.Duration duration = java.time.Duration.between(firstMarkedAt, now);
+                long hours = duration.toHours();
+                long days = duration.toDays();
+                String timeAgo;
+                if (days > 0) {
+                    timeAgo = days + (days == 1 ? " day ago" : " days ago");
+                } else if (hours > 0) {
+                    timeAgo = hours + (hours == 1 ? " hour ago" : " hours ago");
+                } else {
+                    timeAgo = "Recently";
+                }
+                activity.put("timeAgo", timeAgo);
+
+                recentActivities.add(activity);
+            }
 
             Map<String, Object> dashboardData = new HashMap<>();
             dashboardData.put("totalStudents", totalStudents);
@@ -797,6 +691,22 @@ public class UserController {
         }
     }
 
+    /**
+     * Code to title of the given courses, in the given order, read with one query.
+     */
+    private Map<String, String> teacherCourseTitles(List<Long> courseIds) {
+        Map<Long, Course> coursesById = new HashMap<>();
+        courseRepository.findAllById(courseIds).forEach(course -> coursesById.put(course.getId(), course));
+        Map<String, String> courseTitles = new LinkedHashMap<>();
+        for (Long courseId : courseIds) {
+            Course course = coursesById.get(courseId);
+            if (course != null) {
+                courseTitles.put(course.getCode(), course.getTitle());
+            }
+        }
+        return courseTitles;
+    }
+
     @GetMapping("/teacher/attendance/{userId}")
     public ResponseEntity<?> getTeacherAttendanceRecords(@PathVariable Long userId,
                                                         @RequestParam(required = false) String courseCode,
@@ -813,7 +723,7 @@ public class UserController {
             }
 
             // Get teacher's courses through enrollments
-            List<String> teacherCourses = enrollmentRepository.findCourseCodesByTeacherId(userId);
+            List<String> teacherCourses = enrollmentCache.getTeacherCourseCodes(userId);
 
             if (teacherCourses.isEmpty()) {
                 return ResponseEntity.ok(Map.of(
@@ -0,0 +1,100 @@
+package com.university.attendance.dto;
+
+import java.time.Instant;
+
+/**
+ * One row of the admin attendance overview, read together with the student, user and
+ * course columns it needs by AttendanceRepository.findOverviewPage.
+ */
+public class AttendanceOverviewRecord {
+    private Long id;
+    private Long studentId;
+    private String courseCode;
+    private Long sessionId;
+    private String status;
+    private Instant timestamp;
+    private String studentName;
+    private String batch;
+    private String userBatch;
+    private String fullName;
+    private String username;
+    private String email;
+    private String department;
+    private String section;
+    private String studentBatch;
+    private String courseTitle;
+
+    public AttendanceOverviewRecord() {}
+
+    public AttendanceOverviewRecord(Long id, Long studentId, String courseCode, Long sessionId,
+                                    String status, Instant timestamp, String firstName, String lastName,
+                                    String fullName, String username, String email, String userBatch,
+                                    Long studentRowId, String department, String section,
+                                    String studentBatch, String courseTitle) {
+        this.id = id;
+        this.studentId = studentId;
+        this.courseCode = courseCode;
+        this.sessionId = sessionId;
+        this.status = status;
+        this.timestamp = timestamp;
+        // Users, students and courses are outer-joined; keep the placeholders the overview always used
+        this.studentName = username != null ? firstName + " " + lastName : "Unknown Student";
+        this.batch = userBatch != null ? userBatch.trim() : "No Batch";
+        this.userBatch = userBatch;
+        this.fullName = fullName;
+        this.username = username;
+        this.email = email;
+        this.department = studentRowId != null ? department : "Unknown";
+        this.section = section;
+        this.studentBatch = studentBatch;
+        this.courseTitle = courseTitle != null ? courseTitle : courseCode;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getStudentId() { return studentId; }
+    public void setStudentId(Long studentId) { this.studentId = studentId; }
+
+    public String getCourseCode() { return courseCode; }
+    public void setCourseCode(String courseCode) { this.courseCode = courseCode; }
+
+    public Long getSessionId() { return sessionId; }
+    public void setSessionId(Long sessionId) { this.sessionId = sessionId; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public Instant getTimestamp() { return timestamp; }
+    public void setTimestamp(Instant timestamp) { this.timestamp = timestamp; }
+
+    public String getStudentName() { return studentName; }
+    public void setStudentName(String studentName) { this.studentName = studentName; }
+
+    public String getBatch() { return batch; }
+    public void setBatch(String batch) { this.batch = batch; }
+
+    public String getUserBatch() { return userBatch; }
+    public void setUserBatch(String userBatch) { this.userBatch = userBatch; }
+
+    public String getFullName() { return fullName; }
+    public void setFullName(String fullName) { this.fullName = fullName; }
+
+    public String getUsername() { return username; }
+    public void setUsername(String username) { this.username = username; }
+
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; }
+
+    public String getDepartment() { return department; }
+    public void setDepartment(String department) { this.department = department; }
+
+    public String getSection() { return section; }
+    public void setSection(String section) { this.section = section; }
+
+    public String getStudentBatch() { return studentBatch; }
+    public void setStudentBatch(String studentBatch) { this.studentBatch = studentBatch; }
+
+    public String getCourseTitle() { return courseTitle; }
+    public void setCourseTitle(String courseTitle) { this.courseTitle = courseTitle; }
+}
@@ -0,0 +1,43 @@
+package com.university.attendance.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Attendance totals of one day, week (starting Monday) or month (starting on the 1st),
+ * summed from the daily rollups by AttendanceReportService.
+ */
+public class AttendanceTrendBucket {
+    private LocalDate periodStart;
+    private long totalRecords;
+    private long presentRecords;
+    private long missedRecords;
+
+    public AttendanceTrendBucket() {}
+
+    public AttendanceTrendBucket(LocalDate periodStart, long totalRecords, long presentRecords, long missedRecords) {
+        this.periodStart = periodStart;
+        this.totalRecords = totalRecords;
+        this.presentRecords = presentRecords;
+        this.missedRecords = missedRecords;
+    }
+
+    /**
+     * Percentage of expected attendances (records plus missed classes) that were PRESENT, 0 when none were expected.
+     */
+    public double getAttendanceRate() {
+        long expected = totalRecords + missedRecords;
+        return expected > 0 ? ((double) presentRecords / expected) * 100 : 0;
+    }
+
+    public LocalDate getPeriodStart() { return periodStart; }
+    public void setPeriodStart(LocalDate periodStart) { this.periodStart = periodStart; }
+
+    public long getTotalRecords() { return totalRecords; }
+    public void setTotalRecords(long totalRecords) { this.totalRecords = totalRecords; }
+
+    public long getPresentRecords() { return presentRecords; }
+    public void setPresentRecords(long presentRecords) { this.presentRecords = presentRecords; }
+
+    public long getMissedRecords() { return missedRecords; }
+    public void setMissedRecords(long missedRecords) { this.missedRecords = missedRecords; }
+}
@@ -0,0 +1,66 @@
+package com.university.attendance.dto;
+
+import java.time.Instant;
+
+/**
+ * One row of a session's attendee list, read in a single query by
+ * AttendanceRepository.findAttendeeDetailsBySessionID.
+ */
+public class AttendeeDetailsResponse {
+    private Long attendanceId;
+    private Long studentId;
+    private String attendanceCode;
+    private Instant timestamp;
+    private String status;
+    private String studentName;
+    private String rollNumber;
+    private Instant sessionStart;
+    private Instant sessionEnd;
+
+    public AttendeeDetailsResponse() {}
+
+    public AttendeeDetailsResponse(Long attendanceId, Long studentId, String attendanceCode,
+                                   Instant timestamp, String status, String firstName, String lastName,
+                                   String username, Instant sessionStart, Instant sessionEnd) {
+        this.attendanceId = attendanceId;
+        this.studentId = studentId;
+        this.attendanceCode = attendanceCode;
+        this.timestamp = timestamp;
+        this.status = status;
+        // The student row is outer-joined; a missing account keeps the old placeholders
+        this.studentName = username != null ? firstName + " " + lastName : "Unknown Student";
+        this.rollNumber = username != null ? username : "N/A";
+        this.sessionStart = sessionStart;
+        this.sessionEnd = sessionEnd;
+    }
+
+    public Long getAttendanceId() { return attendanceId; }
+    public void setAttendanceId(Long attendanceId) { this.attendanceId = attendanceId; }
+
+    public Long getStudentId() { return studentId; }
+    public void setStudentId(Long studentId) { this.studentId = studentId; }
+
+    public String getAttendanceCode() { return attendanceCode; }
+    public void setAttendanceCode(String attendanceCode) { this.attendanceCode = attendanceCode; }
+
+    public Instant getTimestamp() { return timestamp; }
+    public void setTimestamp(Instant timestamp) { this.timestamp = timestamp; }
+
+    // Kept for clients that read the former createdAt key; always equal to timestamp
+    public Instant getCreatedAt() { return timestamp; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getStudentName() { return studentName; }
+    public void setStudentName(String studentName) { this.studentName = studentName; }
+
+    public String getRollNumber() { return rollNumber; }
+    public void setRollNumber(String rollNumber) { this.rollNumber = rollNumber; }
+
+    public Instant getSessionStart() { return sessionStart; }
+    public void setSessionStart(Instant sessionStart) { this.sessionStart = sessionStart; }
+
+    public Instant getSessionEnd() { return sessionEnd; }
+    public void setSessionEnd(Instant sessionEnd) { this.sessionEnd = sessionEnd; }
+}
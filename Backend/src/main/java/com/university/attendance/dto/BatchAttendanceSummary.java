@@ -0,0 +1,41 @@
+package com.university.attendance.dto;
+
+/**
+ * Student count and attendance totals of one student batch, read in a single GROUP BY by
+ * AttendanceSummaryRepository.findBatchAttendanceSummaries. totalRecords counts marked and missed
+ * sessions, presentRecords the attended ones.
+ */
+public class BatchAttendanceSummary {
+    private String batch;
+    private long totalStudents;
+    private long totalRecords;
+    private long presentRecords;
+
+    public BatchAttendanceSummary() {}
+
+    public BatchAttendanceSummary(String batch, Long totalStudents, Long totalRecords, Long presentRecords) {
+        this.batch = batch;
+        this.totalStudents = totalStudents != null ? totalStudents : 0;
+        this.totalRecords = totalRecords != null ? totalRecords : 0;
+        this.presentRecords = presentRecords != null ? presentRecords : 0;
+    }
+
+    /**
+     * Percentage of sessions attended, 0 when there are none.
+     */
+    public double getAttendancePercentage() {
+        return totalRecords > 0 ? ((double) presentRecords / totalRecords) * 100 : 0;
+    }
+
+    public String getBatch() { return batch; }
+    public void setBatch(String batch) { this.batch = batch; }
+
+    public long getTotalStudents() { return totalStudents; }
+    public void setTotalStudents(long totalStudents) { this.totalStudents = totalStudents; }
+
+    public long getTotalRecords() { return totalRecords; }
+    public void setTotalRecords(long totalRecords) { this.totalRecords = totalRecords; }
+
+    public long getPresentRecords() { return presentRecords; }
+    public void setPresentRecords(long presentRecords) { this.presentRecords = presentRecords; }
+}
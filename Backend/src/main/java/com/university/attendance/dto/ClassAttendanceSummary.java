@@ -0,0 +1,61 @@
+package com.university.attendance.dto;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Attendance of one course on one day, summed from the daily rollups by TeacherAnalyticsService.
+ * firstMarkedAt is only filled in for the recent classes on the teacher dashboard.
+ */
+public class ClassAttendanceSummary {
+    private String courseCode;
+    private LocalDate day;
+    private long totalRecords;
+    private long presentRecords;
+    private long missedRecords;
+    private Instant firstMarkedAt;
+
+    public ClassAttendanceSummary() {}
+
+    public ClassAttendanceSummary(String courseCode, LocalDate day, long totalRecords, long presentRecords,
+                                  long missedRecords) {
+        this.courseCode = courseCode;
+        this.day = day;
+        this.totalRecords = totalRecords;
+        this.presentRecords = presentRecords;
+        this.missedRecords = missedRecords;
+    }
+
+    /**
+     * Attendances expected: records plus enrolled students who missed the class.
+     */
+    public long getExpectedRecords() {
+        return totalRecords + missedRecords;
+    }
+
+    /**
+     * Percentage of expected attendances that were PRESENT, 0 when none were expected.
+     */
+    public double getAttendanceRate() {
+        long expected = getExpectedRecords();
+        return expected > 0 ? ((double) presentRecords / expected) * 100 : 0;
+    }
+
+    public String getCourseCode() { return courseCode; }
+    public void setCourseCode(String courseCode) { this.courseCode = courseCode; }
+
+    public LocalDate getDay() { return day; }
+    public void setDay(LocalDate day) { this.day = day; }
+
+    public long getTotalRecords() { return totalRecords; }
+    public void setTotalRecords(long totalRecords) { this.totalRecords = totalRecords; }
+
+    public long getPresentRecords() { return presentRecords; }
+    public void setPresentRecords(long presentRecords) { this.presentRecords = presentRecords; }
+
+    public long getMissedRecords() { return missedRecords; }
+    public void setMissedRecords(long missedRecords) { this.missedRecords = missedRecords; }
+
+    public Instant getFirstMarkedAt() { return firstMarkedAt; }
+    public void setFirstMarkedAt(Instant firstMarkedAt) { this.firstMarkedAt = firstMarkedAt; }
+}
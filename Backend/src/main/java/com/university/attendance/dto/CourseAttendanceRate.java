@@ -0,0 +1,51 @@
+package com.university.attendance.dto;
+
+/**
+ * Attendance totals of one course, or of one batch within a course, read in a single GROUP BY by
+ * AttendanceSummaryRepository.findCourseAttendanceRates / findCourseBatchAttendanceRates.
+ * totalRecords counts marked and missed sessions, presentRecords the attended ones.
+ */
+public class CourseAttendanceRate {
+    private String courseCode;
+    private String courseTitle;
+    private String batch;
+    private long totalRecords;
+    private long presentRecords;
+
+    public CourseAttendanceRate() {}
+
+    public CourseAttendanceRate(String courseCode, String courseTitle, Long totalRecords, Long presentRecords) {
+        this(courseCode, courseTitle, null, totalRecords, presentRecords);
+    }
+
+    public CourseAttendanceRate(String courseCode, String courseTitle, String batch,
+                                Long totalRecords, Long presentRecords) {
+        this.courseCode = courseCode;
+        this.courseTitle = courseTitle;
+        this.batch = batch;
+        this.totalRecords = totalRecords != null ? totalRecords : 0;
+        this.presentRecords = presentRecords != null ? presentRecords : 0;
+    }
+
+    /**
+     * Percentage of sessions attended, 0 when there are none.
+     */
+    public double getAttendanceRate() {
+        return totalRecords > 0 ? ((double) presentRecords / totalRecords) * 100 : 0;
+    }
+
+    public String getCourseCode() { return courseCode; }
+    public void setCourseCode(String courseCode) { this.courseCode = courseCode; }
+
+    public String getCourseTitle() { return courseTitle; }
+    public void setCourseTitle(String courseTitle) { this.courseTitle = courseTitle; }
+
+    public String getBatch() { return batch; }
+    public void setBatch(String batch) { this.batch = batch; }
+
+    public long getTotalRecords() { return totalRecords; }
+    public void setTotalRecords(long totalRecords) { this.totalRecords = totalRecords; }
+
+    public long getPresentRecords() { return presentRecords; }
+    public void setPresentRecords(long presentRecords) { this.presentRecords = presentRecords; }
+}
@@ -0,0 +1,47 @@
+package com.university.attendance.dto;
+
+/**
+ * Attendance of one student across a set of courses, with the name resolved in bulk by
+ * TeacherAnalyticsService. studentRecord tells whether the user has a students row; totalRecords
+ * counts marked and missed sessions, presentRecords the attended ones.
+ */
+public class StudentAttendanceCount {
+    private Long studentId;
+    private String name;
+    private boolean studentRecord;
+    private long totalRecords;
+    private long presentRecords;
+
+    public StudentAttendanceCount() {}
+
+    public StudentAttendanceCount(Long studentId, String name, boolean studentRecord,
+                                  long totalRecords, long presentRecords) {
+        this.studentId = studentId;
+        this.name = name;
+        this.studentRecord = studentRecord;
+        this.totalRecords = totalRecords;
+        this.presentRecords = presentRecords;
+    }
+
+    /**
+     * Percentage of sessions attended, 0 when there are none.
+     */
+    public double getAttendanceRate() {
+        return totalRecords > 0 ? ((double) presentRecords / totalRecords) * 100 : 0;
+    }
+
+    public Long getStudentId() { return studentId; }
+    public void setStudentId(Long studentId) { this.studentId = studentId; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public boolean isStudentRecord() { return studentRecord; }
+    public void setStudentRecord(boolean studentRecord) { this.studentRecord = studentRecord; }
+
+    public long getTotalRecords() { return totalRecords; }
+    public void setTotalRecords(long totalRecords) { this.totalRecords = totalRecords; }
+
+    public long getPresentRecords() { return presentRecords; }
+    public void setPresentRecords(long presentRecords) { this.presentRecords = presentRecords; }
+}
@@ -7,8 +7,13 @@ import java.time.Instant;
 @Table(name = "attendance")
 public class Attendance {
 
+    // Table-based ids (allocated in blocks) instead of IDENTITY so Hibernate can batch the inserts.
+    // See migration_attendance_id_generator.sql for seeding the generator row.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "attendance_id_generator")
+    @TableGenerator(name = "attendance_id_generator", table = "id_generators",
+                    pkColumnName = "gen_name", valueColumnName = "gen_value",
+                    pkColumnValue = "attendance", allocationSize = 50)
     @Column(name = "attendanceID")
     private Long attendanceID;
 
@@ -0,0 +1,67 @@
+package com.university.attendance.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * Attendance records of one course and one student batch on one day.
+ *
+ * batch is empty for students without a batch. Maintained by AttendanceSummaryService as rows are
+ * written; weekly and monthly trends are sums over these daily buckets. missed counts enrolled
+ * students without a record when a session of the course scheduled that day ended, so
+ * total + missed is the number of attendances expected.
+ */
+@Entity
+@Table(name = "attendance_daily_rollup",
+       uniqueConstraints = @UniqueConstraint(name = "uk_attendance_rollup_day_course_batch",
+                                             columnNames = {"day", "courseCode", "batch"}),
+       indexes = {
+           @Index(name = "idx_attendance_rollup_course_day", columnList = "courseCode, day"),
+           @Index(name = "idx_attendance_rollup_batch_day", columnList = "batch, day")
+       })
+public class AttendanceDailyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "day", nullable = false)
+    private LocalDate day;
+
+    @Column(name = "courseCode", nullable = false)
+    private String courseCode;
+
+    @Column(name = "batch", nullable = false)
+    private String batch;
+
+    @Column(name = "total", nullable = false)
+    private long total;
+
+    @Column(name = "present", nullable = false)
+    private long present;
+
+    @Column(name = "missed", nullable = false)
+    private long missed;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public LocalDate getDay() { return day; }
+    public void setDay(LocalDate day) { this.day = day; }
+
+    public String getCourseCode() { return courseCode; }
+    public void setCourseCode(String courseCode) { this.courseCode = courseCode; }
+
+    public String getBatch() { return batch; }
+    public void setBatch(String batch) { this.batch = batch; }
+
+    public long getTotal() { return total; }
+    public void setTotal(long total) { this.total = total; }
+
+    public long getPresent() { return present; }
+    public void setPresent(long present) { this.present = present; }
+
+    public long getMissed() { return missed; }
+    public void setMissed(long missed) { this.missed = missed; }
+}
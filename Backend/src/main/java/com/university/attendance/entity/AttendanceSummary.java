@@ -0,0 +1,55 @@
+package com.university.attendance.entity;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * Running attendance counters of one student in one course.
+ *
+ * attended counts the sessions the student marked; total additionally counts ended sessions of
+ * enrolled courses that the student missed. Maintained by AttendanceSummaryService, never edited directly.
+ */
+@Entity
+@Table(name = "attendance_summary",
+       uniqueConstraints = @UniqueConstraint(name = "uk_attendance_summary_student_course",
+                                             columnNames = {"studentID", "courseCode"}))
+public class AttendanceSummary {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "studentID", nullable = false)
+    private Long studentID;
+
+    @Column(name = "courseCode", nullable = false)
+    private String courseCode;
+
+    @Column(name = "attended", nullable = false)
+    private long attended;
+
+    @Column(name = "total", nullable = false)
+    private long total;
+
+    @Column(name = "last_seen")
+    private Instant lastSeen;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getStudentID() { return studentID; }
+    public void setStudentID(Long studentID) { this.studentID = studentID; }
+
+    public String getCourseCode() { return courseCode; }
+    public void setCourseCode(String courseCode) { this.courseCode = courseCode; }
+
+    public long getAttended() { return attended; }
+    public void setAttended(long attended) { this.attended = attended; }
+
+    public long getTotal() { return total; }
+    public void setTotal(long total) { this.total = total; }
+
+    public Instant getLastSeen() { return lastSeen; }
+    public void setLastSeen(Instant lastSeen) { this.lastSeen = lastSeen; }
+}
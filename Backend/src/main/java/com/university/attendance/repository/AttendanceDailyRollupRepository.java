@@ -0,0 +1,77 @@
+package com.university.attendance.repository;
+
+import com.university.attendance.entity.AttendanceDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface AttendanceDailyRollupRepository extends JpaRepository<AttendanceDailyRollup, Long> {
+
+    /**
+     * Add freshly written attendance rows to a day's bucket, creating the bucket on first use.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO attendance_daily_rollup (day, course_code, batch, total, present, missed) " +
+                   "VALUES (:day, :courseCode, :batch, :total, :present, 0) " +
+                   "ON DUPLICATE KEY UPDATE total = total + VALUES(total), present = present + VALUES(present)",
+           nativeQuery = true)
+    int addMarked(@Param("day") LocalDate day,
+                  @Param("courseCode") String courseCode,
+                  @Param("batch") String batch,
+                  @Param("total") long total,
+                  @Param("present") long present);
+
+    /**
+     * Count an ended session as missed, per batch, for every student enrolled in its course who has no
+     * attendance row for it and is not in alreadyMarked (marks still waiting in the write-behind queue).
+     * Same students as AttendanceSummaryRepository.addMissedSession.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO attendance_daily_rollup (day, course_code, batch, total, present, missed) " +
+                   "SELECT :day, m.course_code, m.batch, 0, 0, m.missed_count FROM (" +
+                   "SELECT c.code AS course_code, COALESCE(TRIM(u.batch), '') AS batch, COUNT(DISTINCT e.user_id) AS missed_count " +
+                   "FROM enrollments e JOIN courses c ON c.id = e.course_id " +
+                   "LEFT JOIN users u ON u.userID = e.user_id " +
+                   "WHERE c.code = :courseCode AND e.role = 'STUDENT' " +
+                   "AND e.user_id NOT IN (:alreadyMarked) " +
+                   "AND NOT EXISTS (SELECT 1 FROM attendance a WHERE a.sessionID = :sessionId AND a.studentID = e.user_id) " +
+                   "GROUP BY c.code, COALESCE(TRIM(u.batch), '')) m " +
+                   "ON DUPLICATE KEY UPDATE missed = missed + m.missed_count",
+           nativeQuery = true)
+    int addMissedSession(@Param("day") LocalDate day,
+                         @Param("sessionId") Long sessionId,
+                         @Param("courseCode") String courseCode,
+                         @Param("alreadyMarked") Collection<Long> alreadyMarked);
+
+    /**
+     * Per-day totals from..to inclusive, optionally narrowed to one course and/or batch.
+     * Each row is {day, total, present, missed}, ordered by day.
+     */
+    @Query("SELECT r.day, SUM(r.total), SUM(r.present), SUM(r.missed) FROM AttendanceDailyRollup r " +
+           "WHERE r.day BETWEEN :from AND :to " +
+           "AND (:courseCode IS NULL OR r.courseCode = :courseCode) " +
+           "AND (:batch IS NULL OR r.batch = :batch) " +
+           "GROUP BY r.day ORDER BY r.day")
+    List<Object[]> sumByDay(@Param("from") LocalDate from,
+                            @Param("to") LocalDate to,
+                            @Param("courseCode") String courseCode,
+                            @Param("batch") String batch);
+
+    /**
+     * Per-day, per-course totals from..to inclusive for the given courses, summed over batches.
+     * Each row is {day, courseCode, total, present, missed}, newest day first.
+     */
+    @Query("SELECT r.day, r.courseCode, SUM(r.total), SUM(r.present), SUM(r.missed) FROM AttendanceDailyRollup r " +
+           "WHERE r.courseCode IN :courseCodes AND r.day BETWEEN :from AND :to " +
+           "GROUP BY r.day, r.courseCode ORDER BY r.day DESC, r.courseCode")
+    List<Object[]> sumByDayAndCourse(@Param("courseCodes") Collection<String> courseCodes,
+                                     @Param("from") LocalDate from,
+                                     @Param("to") LocalDate to);
+}
@@ -1,11 +1,21 @@
 package com.university.attendance.repository;
 
+import com.university.attendance.dto.AttendanceOverviewRecord;
+import com.university.attendance.dto.AttendeeDetailsResponse;
 import com.university.attendance.entity.Attendance;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface AttendanceRepository extends JpaRepository<Attendance, Long> {
@@ -14,6 +24,79 @@ public interface AttendanceRepository extends JpaRepository<Attendance, Long> {
     boolean existsByStudentIDAndSessionID(Long studentID, Long sessionID);
     List<Attendance> findByCourseCode(String courseCode);
     List<Attendance> findByCourseCodeIn(List<String> courseCodes);
-}
+    List<Attendance> findByStudentIDOrderByTimestampAsc(Long studentID);
+    List<Attendance> findByStudentIDAndCourseCodeOrderByTimestampAsc(Long studentID, String courseCode);
+
+    @Query("SELECT a.studentID FROM Attendance a WHERE a.sessionID = :sessionId")
+    List<Long> findStudentIDsBySessionID(@Param("sessionId") Long sessionId);
+
+    // Rows of [String status, Long count]
+    @Query("SELECT a.status, COUNT(a) FROM Attendance a GROUP BY a.status")
+    List<Object[]> countGroupByStatus();
 
+    /**
+     * Attendees of a session that marked with the session's code inside its time window,
+     * with the student's name and username joined in.
+     */
+    @Query("SELECT new com.university.attendance.dto.AttendeeDetailsResponse(" +
+           "a.attendanceID, a.studentID, a.attendanceCode, a.timestamp, a.status, " +
+           "u.firstName, u.lastName, u.username, s.scheduledTime, s.expiryTime) " +
+           "FROM Attendance a " +
+           "JOIN ClassSession s ON s.sessionID = a.sessionID " +
+           "LEFT JOIN User u ON u.userID = a.studentID " +
+           "WHERE a.sessionID = :sessionId " +
+           "AND a.attendanceCode = s.accessCode " +
+           "AND a.timestamp >= s.scheduledTime AND a.timestamp <= s.expiryTime " +
+           "ORDER BY a.timestamp")
+    List<AttendeeDetailsResponse> findAttendeeDetailsBySessionID(@Param("sessionId") Long sessionId);
 
+    /**
+     * One keyset page of the admin attendance overview, newest first. Pass Long.MAX_VALUE as
+     * beforeId for the first page and the last returned id afterwards; batch and courseCode
+     * are optional (null means no filter). The page size comes from the Pageable.
+     */
+    @Query("SELECT new com.university.attendance.dto.AttendanceOverviewRecord(" +
+           "a.attendanceID, a.studentID, a.courseCode, a.sessionID, a.status, a.timestamp, " +
+           "u.firstName, u.lastName, u.name, u.username, u.email, u.batch, " +
+           "st.userID, st.department, st.section, st.batch, c.title) " +
+           "FROM Attendance a " +
+           "LEFT JOIN User u ON u.userID = a.studentID " +
+           "LEFT JOIN Student st ON st.userID = a.studentID " +
+           "LEFT JOIN Course c ON c.code = a.courseCode " +
+           "WHERE a.attendanceID < :beforeId " +
+           "AND a.timestamp >= :from " +
+           "AND (:courseCode IS NULL OR a.courseCode = :courseCode) " +
+           "AND (:batch IS NULL OR TRIM(u.batch) = :batch) " +
+           "ORDER BY a.attendanceID DESC")
+    List<AttendanceOverviewRecord> findOverviewPage(@Param("beforeId") Long beforeId,
+                                                    @Param("from") Instant from,
+                                                    @Param("courseCode") String courseCode,
+                                                    @Param("batch") String batch,
+                                                    Pageable pageable);
+
+    /**
+     * Attendance rows for export in ID order, filtered like findOverviewPage. A fetch size of
+     * Integer.MIN_VALUE makes Connector/J stream the rows instead of buffering the whole result; the
+     * connection can run no other statement until the stream is closed. Must be consumed inside a transaction.
+     */
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.fetchSize", value = "" + Integer.MIN_VALUE),
+        @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT a FROM Attendance a " +
+           "WHERE a.timestamp >= :from " +
+           "AND (:courseCode IS NULL OR a.courseCode = :courseCode) " +
+           "AND (:batch IS NULL OR a.studentID IN (SELECT u.userID FROM User u WHERE TRIM(u.batch) = :batch)) " +
+           "ORDER BY a.attendanceID")
+    Stream<Attendance> streamForExport(@Param("from") Instant from,
+                                       @Param("courseCode") String courseCode,
+                                       @Param("batch") String batch);
+
+    // Rows of [String courseCode, Instant firstTimestamp] for records in [from, to)
+    @Query("SELECT a.courseCode, MIN(a.timestamp) FROM Attendance a " +
+           "WHERE a.courseCode IN :courseCodes AND a.timestamp >= :from AND a.timestamp < :to " +
+           "GROUP BY a.courseCode")
+    List<Object[]> findFirstTimestampByCourse(@Param("courseCodes") Collection<String> courseCodes,
+                                              @Param("from") Instant from,
+                                              @Param("to") Instant to);
+}
@@ -0,0 +1,93 @@
+package com.university.attendance.repository;
+
+import com.university.attendance.dto.BatchAttendanceSummary;
+import com.university.attendance.dto.CourseAttendanceRate;
+import com.university.attendance.entity.AttendanceSummary;
+import com.university.attendance.entity.UserRole;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface AttendanceSummaryRepository extends JpaRepository<AttendanceSummary, Long> {
+    List<AttendanceSummary> findByStudentID(Long studentID);
+
+    /**
+     * Expected (marked or missed) and attended counts per course, for courses that exist in the courses table.
+     */
+    @Query("SELECT new com.university.attendance.dto.CourseAttendanceRate(" +
+           "s.courseCode, c.title, SUM(s.total), SUM(s.attended)) " +
+           "FROM AttendanceSummary s " +
+           "JOIN Course c ON c.code = s.courseCode " +
+           "GROUP BY s.courseCode, c.title")
+    List<CourseAttendanceRate> findCourseAttendanceRates();
+
+    /**
+     * Like findCourseAttendanceRates, split further by the student's batch (null when the student has none).
+     */
+    @Query("SELECT new com.university.attendance.dto.CourseAttendanceRate(" +
+           "s.courseCode, c.title, TRIM(u.batch), SUM(s.total), SUM(s.attended)) " +
+           "FROM AttendanceSummary s " +
+           "JOIN Course c ON c.code = s.courseCode " +
+           "LEFT JOIN User u ON u.userID = s.studentID " +
+           "GROUP BY s.courseCode, c.title, TRIM(u.batch)")
+    List<CourseAttendanceRate> findCourseBatchAttendanceRates();
+
+    /**
+     * Student count and expected / attended session counts per batch of the given role's users,
+     * joined through idx_users_role_batch and the student's summary rows.
+     */
+    @Query("SELECT new com.university.attendance.dto.BatchAttendanceSummary(" +
+           "TRIM(u.batch), COUNT(DISTINCT u.userID), SUM(s.total), SUM(s.attended)) " +
+           "FROM User u " +
+           "LEFT JOIN AttendanceSummary s ON s.studentID = u.userID " +
+           "WHERE u.role = :role AND u.batch IS NOT NULL AND TRIM(u.batch) <> '' " +
+           "GROUP BY TRIM(u.batch)")
+    List<BatchAttendanceSummary> findBatchAttendanceSummaries(@Param("role") UserRole role);
+
+    // Rows of [Long studentID, Long expected, Long attended] over the given courses
+    @Query("SELECT s.studentID, SUM(s.total), SUM(s.attended) " +
+           "FROM AttendanceSummary s WHERE s.courseCode IN :courseCodes GROUP BY s.studentID")
+    List<Object[]> countByStudentForCourses(@Param("courseCodes") Collection<String> courseCodes);
+
+    @Query("SELECT COUNT(DISTINCT s.studentID) FROM AttendanceSummary s WHERE s.courseCode IN :courseCodes")
+    long countDistinctStudentsForCourses(@Param("courseCodes") Collection<String> courseCodes);
+
+    /**
+     * Add freshly written attendance rows for a student in a course, creating the row on first use.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO attendance_summary (studentID, course_code, attended, total, last_seen) " +
+                   "VALUES (:studentId, :courseCode, :attended, :total, :lastSeen) " +
+                   "ON DUPLICATE KEY UPDATE attended = attended + VALUES(attended), total = total + VALUES(total), " +
+                   "last_seen = GREATEST(COALESCE(last_seen, VALUES(last_seen)), VALUES(last_seen))",
+           nativeQuery = true)
+    int addMarked(@Param("studentId") Long studentId,
+                  @Param("courseCode") String courseCode,
+                  @Param("attended") long attended,
+                  @Param("total") long total,
+                  @Param("lastSeen") Instant lastSeen);
+
+    /**
+     * Count an ended session as missed for every student enrolled in its course who has no attendance
+     * row for it and is not in alreadyMarked (marks still waiting in the write-behind queue).
+     */
+    @Modifying
+    @Query(value = "INSERT INTO attendance_summary (studentID, course_code, attended, total, last_seen) " +
+                   "SELECT DISTINCT e.user_id, c.code, 0, 1, NULL " +
+                   "FROM enrollments e JOIN courses c ON c.id = e.course_id " +
+                   "WHERE c.code = :courseCode AND e.role = 'STUDENT' " +
+                   "AND e.user_id NOT IN (:alreadyMarked) " +
+                   "AND NOT EXISTS (SELECT 1 FROM attendance a WHERE a.sessionID = :sessionId AND a.studentID = e.user_id) " +
+                   "ON DUPLICATE KEY UPDATE total = total + 1",
+           nativeQuery = true)
+    int addMissedSession(@Param("sessionId") Long sessionId,
+                         @Param("courseCode") String courseCode,
+                         @Param("alreadyMarked") Collection<Long> alreadyMarked);
+}
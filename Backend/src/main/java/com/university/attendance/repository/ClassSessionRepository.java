@@ -1,9 +1,11 @@
 package com.university.attendance.repository;
 
 import com.university.attendance.entity.ClassSession;
+import com.university.attendance.entity.SessionStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -11,6 +13,9 @@ public interface ClassSessionRepository extends JpaRepository<ClassSession, Long
     Optional<ClassSession> findTopByAccessCodeOrderBySessionIDDesc(String accessCode);
     Optional<ClassSession> findTopByCourseCodeOrderBySessionIDDesc(String courseCode);
     Optional<ClassSession> findByAccessCodeAndIsActiveTrue(String accessCode);
+    long countByIsActiveTrue();
+    List<ClassSession> findByStatus(SessionStatus status);
+    List<ClassSession> findByStatusAndIsActiveTrue(SessionStatus status);
 }
 
 
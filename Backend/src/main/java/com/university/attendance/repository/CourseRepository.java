@@ -4,6 +4,8 @@ import com.university.attendance.entity.Course;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -11,5 +13,7 @@ public interface CourseRepository extends JpaRepository<Course, Long> {
     
     Optional<Course> findByCode(String code);
     
+    List<Course> findByCodeIn(Collection<String> codes);
+    
     boolean existsByCode(String code);
 }
\ No newline at end of file
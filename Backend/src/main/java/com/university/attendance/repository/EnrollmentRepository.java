@@ -3,10 +3,12 @@ package com.university.attendance.repository;
 import com.university.attendance.entity.Enrollment;
 import com.university.attendance.entity.EnrollmentRole;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -26,4 +28,24 @@ public interface EnrollmentRepository extends JpaRepository<Enrollment, Long> {
     
     @Query("SELECT c.code FROM Enrollment e JOIN Course c ON e.courseId = c.id WHERE e.userId = :teacherId AND e.role = 'TEACHER'")
     List<String> findCourseCodesByTeacherId(@Param("teacherId") Long teacherId);
-}
\ No newline at end of file
+
+    @Query("SELECT e.userId FROM Enrollment e WHERE e.courseId = :courseId")
+    List<Long> findUserIdsByCourseId(@Param("courseId") Long courseId);
+
+    @Query("SELECT e.userId FROM Enrollment e WHERE e.courseId = :courseId AND e.userId IN :userIds")
+    List<Long> findUserIdsByCourseIdAndUserIdIn(@Param("courseId") Long courseId,
+                                                @Param("userIds") Collection<Long> userIds);
+
+    /**
+     * Enroll many users in a course with one statement. Pairs that already exist are skipped by uk_user_course.
+     * @return the number of enrollments created
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO enrollments (user_id, course_id, assigned_by, role) " +
+                   "SELECT u.userID, :courseId, :assignedBy, :role FROM users u WHERE u.userID IN (:userIds)",
+           nativeQuery = true)
+    int insertEnrollments(@Param("userIds") Collection<Long> userIds,
+                          @Param("courseId") Long courseId,
+                          @Param("assignedBy") Long assignedBy,
+                          @Param("role") String role);
+}
@@ -3,16 +3,32 @@ package com.university.attendance.repository;
 import com.university.attendance.entity.User;
 import com.university.attendance.entity.UserRole;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
+    List<User> findByUsernameIn(Collection<String> usernames);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
     List<User> findByRoleAndBatch(UserRole role, String batch);
     List<User> findByRole(UserRole role);
+
+    // Rows of [UserRole role, Long count]
+    @Query("SELECT u.role, COUNT(u) FROM User u GROUP BY u.role")
+    List<Object[]> countGroupByRole();
+
+    // Rows of [Long userID, String batch] for the given users
+    @Query("SELECT u.userID, u.batch FROM User u WHERE u.userID IN :userIds")
+    List<Object[]> findBatchesByUserIds(@Param("userIds") Collection<Long> userIds);
+
+    // Rows of [Long userID, String username, String firstName, String lastName, String batch] for the given users
+    @Query("SELECT u.userID, u.username, u.firstName, u.lastName, u.batch FROM User u WHERE u.userID IN :userIds")
+    List<Object[]> findNamesByUserIds(@Param("userIds") Collection<Long> userIds);
 }
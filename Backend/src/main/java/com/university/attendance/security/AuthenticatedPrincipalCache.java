@@ -0,0 +1,89 @@
+package com.university.attendance.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded cache of verified JWT → loaded principal, so a repeat request with the same token skips
+ * both the signature check and the user lookup.
+ *
+ * Entries live for at most ttl-seconds and never past the token's own expiry. AdminController
+ * invalidates a user's entries when the account is disabled or deleted.
+ */
+@Component
+public class AuthenticatedPrincipalCache {
+
+    @Value("${jwt.principal-cache.max-size:10000}")
+    private int maxSize;
+
+    @Value("${jwt.principal-cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    private final Map<String, CachedPrincipal> principalsByToken = new ConcurrentHashMap<>();
+
+    public UserDetails get(String token) {
+        CachedPrincipal cached = principalsByToken.get(token);
+        if (cached == null) {
+            return null;
+        }
+        if (cached.isExpired(Instant.now())) {
+            principalsByToken.remove(token, cached);
+            return null;
+        }
+        return cached.principal;
+    }
+
+    public void put(String token, UserDetails principal, Date tokenExpiration) {
+        Instant expiresAt = Instant.now().plusSeconds(ttlSeconds);
+        if (tokenExpiration != null && tokenExpiration.toInstant().isBefore(expiresAt)) {
+            expiresAt = tokenExpiration.toInstant();
+        }
+        if (principalsByToken.size() >= maxSize) {
+            evict();
+        }
+        principalsByToken.put(token, new CachedPrincipal(principal, expiresAt));
+    }
+
+    /**
+     * Drop every cached token of a user, e.g. after the account was disabled or deleted.
+     */
+    public void invalidateUser(String username) {
+        principalsByToken.values().removeIf(cached -> cached.principal.getUsername().equals(username));
+    }
+
+    public int size() {
+        return principalsByToken.size();
+    }
+
+    // Remove expired entries first; if the cache is still full, drop arbitrary entries until there is room
+    private void evict() {
+        Instant now = Instant.now();
+        principalsByToken.values().removeIf(cached -> cached.isExpired(now));
+        Iterator<String> tokens = principalsByToken.keySet().iterator();
+        while (principalsByToken.size() >= maxSize && tokens.hasNext()) {
+            tokens.next();
+            tokens.remove();
+        }
+    }
+
+    private static final class CachedPrincipal {
+        private final UserDetails principal;
+        private final Instant expiresAt;
+
+        private CachedPrincipal(UserDetails principal, Instant expiresAt) {
+            this.principal = principal;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(Instant now) {
+            return !now.isBefore(expiresAt);
+        }
+    }
+}
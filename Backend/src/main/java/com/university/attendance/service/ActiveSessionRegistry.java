@@ -0,0 +1,197 @@
+package com.university.attendance.service;
+
+import com.university.attendance.entity.ClassSession;
+import com.university.attendance.entity.SessionStatus;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory view of the attendance sessions that are currently open (ACTIVE, running or paused),
+ * keyed by access code and by course, together with the students that already marked attendance in each one.
+ *
+ * AttendanceService keeps it coherent on every lifecycle change (and loads the open sessions on
+ * startup) so that markAttendance can validate the code and reject duplicates, LocationVerificationService
+ * can geofence, and students can find their open session, without a database round-trip.
+ */
+@Component
+public class ActiveSessionRegistry {
+
+    private final Map<String, ActiveSession> sessionsByCode = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> markedStudents = new ConcurrentHashMap<>();
+    /** Newest open session per course, mirroring findTopByCourseCodeOrderBySessionIDDesc. */
+    private final Map<String, ActiveSession> sessionsByCourse = new ConcurrentHashMap<>();
+
+    /**
+     * Record the latest state of a session. Sessions that are no longer ACTIVE are evicted.
+     */
+    public void track(ClassSession session) {
+        if (session == null || session.getAccessCode() == null) {
+            return;
+        }
+        if (!SessionStatus.ACTIVE.equals(session.getStatus())) {
+            evict(session);
+            return;
+        }
+        ActiveSession active = ActiveSession.of(session);
+        if (session.getSessionID() != null) {
+            markedStudents.computeIfAbsent(session.getSessionID(), id -> ConcurrentHashMap.newKeySet());
+        }
+        sessionsByCode.put(session.getAccessCode(), active);
+        indexByCourse(active, true);
+    }
+
+    /**
+     * Register a session loaded from the database together with the students already recorded for it.
+     */
+    public void load(ClassSession session, Collection<Long> attendedStudentIds) {
+        if (session == null || !SessionStatus.ACTIVE.equals(session.getStatus())) {
+            return;
+        }
+        markedStudents.computeIfAbsent(session.getSessionID(), id -> ConcurrentHashMap.newKeySet())
+                .addAll(attendedStudentIds);
+        ActiveSession active = sessionsByCode.computeIfAbsent(session.getAccessCode(), code -> ActiveSession.of(session));
+        indexByCourse(active, false);
+    }
+
+    public void evict(ClassSession session) {
+        if (session.getAccessCode() != null) {
+            sessionsByCode.remove(session.getAccessCode());
+        }
+        if (session.getSessionID() != null) {
+            markedStudents.remove(session.getSessionID());
+            if (session.getCourseCode() != null) {
+                sessionsByCourse.computeIfPresent(session.getCourseCode(),
+                    (course, indexed) -> session.getSessionID().equals(indexed.getSessionId()) ? null : indexed);
+            }
+        }
+    }
+
+    /**
+     * Students that have claimed a mark in the session, including marks not yet written.
+     */
+    public Set<Long> markedStudents(Long sessionId) {
+        Set<Long> students = markedStudents.get(sessionId);
+        return students == null ? Set.of() : Set.copyOf(students);
+    }
+
+    public Optional<ActiveSession> find(String accessCode) {
+        if (accessCode == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(sessionsByCode.get(accessCode));
+    }
+
+    /**
+     * The newest open session of each of the given courses, in the order the courses are given.
+     * Courses without an open session are skipped.
+     */
+    public List<ActiveSession> findByCourses(Collection<String> courseCodes) {
+        List<ActiveSession> sessions = new ArrayList<>();
+        for (String courseCode : courseCodes) {
+            ActiveSession session = courseCode != null ? sessionsByCourse.get(courseCode) : null;
+            if (session != null) {
+                sessions.add(session);
+            }
+        }
+        return sessions;
+    }
+
+    /**
+     * Atomically claim the (session, student) pair. Only open sessions accept claims, so a mark that
+     * races with evict cannot bring an ended session back.
+     * @return false if the student had already marked attendance for the session
+     * @throws RuntimeException if the session is not open
+     */
+    public boolean markIfAbsent(Long sessionId, Long studentId) {
+        Set<Long> students = markedStudents.get(sessionId);
+        if (students == null) {
+            throw new RuntimeException("Attendance session is not active");
+        }
+        return students.add(studentId);
+    }
+
+    /**
+     * Release a claim taken by markIfAbsent, e.g. when the insert that followed it failed.
+     */
+    public void unmark(Long sessionId, Long studentId) {
+        Set<Long> students = markedStudents.get(sessionId);
+        if (students != null) {
+            students.remove(studentId);
+        }
+    }
+
+    public int size() {
+        return sessionsByCode.size();
+    }
+
+    private void indexByCourse(ActiveSession session, boolean replaceSameSession) {
+        if (session.getCourseCode() == null || session.getSessionId() == null) {
+            return;
+        }
+        sessionsByCourse.merge(session.getCourseCode(), session, (indexed, candidate) -> {
+            int order = Long.compare(candidate.getSessionId(), indexed.getSessionId());
+            return order > 0 || (order == 0 && replaceSameSession) ? candidate : indexed;
+        });
+    }
+
+    /**
+     * Immutable snapshot of the ClassSession fields needed on the attendance hot path.
+     */
+    public static final class ActiveSession {
+        private final Long sessionId;
+        private final String courseCode;
+        private final String accessCode;
+        private final SessionStatus status;
+        private final boolean active;
+        private final Instant scheduledTime;
+        private final Instant expiryTime;
+        private final GeofenceEngine.ReferencePoint referencePoint;
+        private final String location;
+        private final String teacherName;
+        private final String teacherUsername;
+        private final Integer remainingTime;
+
+        private ActiveSession(ClassSession session) {
+            this.sessionId = session.getSessionID();
+            this.courseCode = session.getCourseCode();
+            this.accessCode = session.getAccessCode();
+            this.status = session.getStatus();
+            this.active = Boolean.TRUE.equals(session.getIsActive());
+            this.scheduledTime = session.getScheduledTime();
+            this.expiryTime = session.getExpiryTime();
+            this.referencePoint = session.getTeacherLatitude() != null && session.getTeacherLongitude() != null
+                ? GeofenceEngine.ReferencePoint.of(session.getTeacherLatitude(), session.getTeacherLongitude())
+                : null;
+            this.location = session.getLocation();
+            this.teacherName = session.getTeacherName();
+            this.teacherUsername = session.getTeacherUsername();
+            this.remainingTime = session.getRemainingTime();
+        }
+
+        public static ActiveSession of(ClassSession session) {
+            return new ActiveSession(session);
+        }
+
+        public Long getSessionId() { return sessionId; }
+        public String getCourseCode() { return courseCode; }
+        public String getAccessCode() { return accessCode; }
+        public SessionStatus getStatus() { return status; }
+        public boolean isActive() { return active; }
+        public Instant getScheduledTime() { return scheduledTime; }
+        public Instant getExpiryTime() { return expiryTime; }
+        /** Classroom location for geofencing, or null if none has been recorded yet. */
+        public GeofenceEngine.ReferencePoint getReferencePoint() { return referencePoint; }
+        public String getLocation() { return location; }
+        public String getTeacherName() { return teacherName; }
+        public String getTeacherUsername() { return teacherUsername; }
+        public Integer getRemainingTime() { return remainingTime; }
+    }
+}
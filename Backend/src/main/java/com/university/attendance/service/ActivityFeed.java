@@ -0,0 +1,88 @@
+package com.university.attendance.service;
+
+import com.university.attendance.entity.ClassSession;
+import com.university.attendance.entity.User;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Recent domain events for the admin dashboard feed, kept in memory only.
+ *
+ * Services append as things happen (user created, session generated/started/stopped, course
+ * assigned, routine created); reading the feed is a snapshot of an ActivityRingBuffer and never
+ * touches the database. Events raised inside a transaction appear once it commits, stamped with the
+ * time they happened. The feed starts empty after a restart.
+ */
+@Component
+public class ActivityFeed {
+
+    public enum Type { USER, SESSION, COURSE, ROUTINE }
+
+    @Value("${attendance.activity.capacity:256}")
+    private int capacity;
+
+    private ActivityRingBuffer<ActivityEvent> events;
+
+    @PostConstruct
+    public void init() {
+        events = new ActivityRingBuffer<>(capacity);
+    }
+
+    public void userCreated(User user) {
+        String name = user.getFirstName() + " " + user.getLastName();
+        append(Type.USER, "New " + user.getRole().toString().toLowerCase() + " " + name + " added to system");
+    }
+
+    public void sessionGenerated(ClassSession session) {
+        append(Type.SESSION, session.getCourseCode() + " - Attendance session created" + byTeacher(session));
+    }
+
+    public void sessionStarted(ClassSession session) {
+        append(Type.SESSION, session.getCourseCode() + " - Attendance started" + byTeacher(session));
+    }
+
+    public void sessionStopped(ClassSession session) {
+        append(Type.SESSION, session.getCourseCode() + " - Attendance session ended");
+    }
+
+    public void courseAssigned(String courseCode, String courseTitle, int enrolled, String target) {
+        append(Type.COURSE, courseTitle + " (" + courseCode + ") assigned to " + enrolled + " " + target);
+    }
+
+    public void routineCreated(String courseCode, String day, String batch) {
+        append(Type.ROUTINE, courseCode + " scheduled on " + day + " for batch " + batch);
+    }
+
+    /**
+     * Up to limit events, newest first.
+     */
+    public List<ActivityEvent> recent(int limit) {
+        return events.newest(limit);
+    }
+
+    private void append(Type type, String message) {
+        ActivityEvent event = new ActivityEvent(type, message, Instant.now());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    events.add(event);
+                }
+            });
+        } else {
+            events.add(event);
+        }
+    }
+
+    private static String byTeacher(ClassSession session) {
+        return session.getTeacherName() != null ? " by " + session.getTeacherName() : "";
+    }
+
+    public record ActivityEvent(Type type, String message, Instant time) {}
+}
@@ -0,0 +1,59 @@
+package com.university.attendance.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded, lock-free buffer of the most recent items; older items are overwritten.
+ *
+ * Writers claim a sequence number with one getAndIncrement and publish into slot sequence & mask,
+ * stamped with that sequence. Readers walk back from the newest claimed sequence and skip slots
+ * whose stamp does not match, i.e. ones not yet published or already overwritten by a newer lap.
+ */
+public final class ActivityRingBuffer<T> {
+
+    private final AtomicReferenceArray<Slot<T>> slots;
+    private final int mask;
+    private final AtomicLong next = new AtomicLong();
+
+    public ActivityRingBuffer(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    public void add(T item) {
+        long sequence = next.getAndIncrement();
+        slots.set((int) (sequence & mask), new Slot<>(sequence, item));
+    }
+
+    /**
+     * Up to limit items, newest first.
+     */
+    public List<T> newest(int limit) {
+        long head = next.get();
+        long oldest = Math.max(0, head - slots.length());
+        List<T> items = new ArrayList<>(Math.min(limit, slots.length()));
+        for (long sequence = head - 1; sequence >= oldest && items.size() < limit; sequence--) {
+            Slot<T> slot = slots.get((int) (sequence & mask));
+            if (slot != null && slot.sequence == sequence) {
+                items.add(slot.item);
+            }
+        }
+        return items;
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+
+    private record Slot<T>(long sequence, T item) {}
+}
@@ -0,0 +1,160 @@
+package com.university.attendance.service;
+
+import com.university.attendance.entity.Attendance;
+import com.university.attendance.entity.Course;
+import com.university.attendance.repository.AttendanceRepository;
+import com.university.attendance.repository.CourseRepository;
+import com.university.attendance.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Writes attendance as CSV straight from a streamed result set.
+ *
+ * Rows are read in chunks of CHUNK_SIZE; for each chunk the student names are resolved with one
+ * IN query, the rows are written and the persistence context is cleared, so memory stays flat no
+ * matter how many rows the filters match. Course titles are read once per export. The streaming
+ * connection is busy until the export ends, so name lookups run in their own transaction.
+ */
+@Service
+public class AttendanceExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttendanceExportService.class);
+
+    private static final int CHUNK_SIZE = 1000;
+
+    static final String HEADER = "attendanceId,studentId,username,studentName,batch,courseCode,courseTitle,sessionId,status,timestamp";
+
+    @Autowired
+    private AttendanceRepository attendanceRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Write every attendance row since from, optionally for one course and/or student batch.
+     * @return number of rows written
+     */
+    @Transactional(readOnly = true)
+    public long writeCsv(Instant from, String courseCode, String batch, OutputStream out) {
+        TransactionTemplate lookups = new TransactionTemplate(transactionManager);
+        lookups.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        lookups.setReadOnly(true);
+
+        Map<String, String> courseTitles = new HashMap<>();
+        for (Course course : courseRepository.findAll()) {
+            courseTitles.put(course.getCode(), course.getTitle());
+        }
+
+        long written = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        try (Stream<Attendance> rows = attendanceRepository.streamForExport(from, courseCode, batch)) {
+            writer.write(HEADER);
+            writer.write('\n');
+
+            Iterator<Attendance> iterator = rows.iterator();
+            List<Attendance> chunk = new ArrayList<>(CHUNK_SIZE);
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == CHUNK_SIZE || !iterator.hasNext()) {
+                    written += writeChunk(chunk, courseTitles, lookups, writer);
+                    chunk.clear();
+                    // Streamed entities stay managed otherwise
+                    entityManager.clear();
+                }
+            }
+            writer.flush();
+        } catch (IOException e) {
+            // Usually the client went away; nothing left to send the error to
+            throw new UncheckedIOException("Attendance export aborted after " + written + " rows", e);
+        }
+        logger.info("Exported {} attendance rows (from={}, courseCode={}, batch={})", written, from, courseCode, batch);
+        return written;
+    }
+
+    private long writeChunk(List<Attendance> chunk, Map<String, String> courseTitles, TransactionTemplate lookups,
+                            Writer writer) throws IOException {
+        Set<Long> studentIds = new HashSet<>();
+        for (Attendance attendance : chunk) {
+            studentIds.add(attendance.getStudentID());
+        }
+        Map<Long, Object[]> students = new HashMap<>();
+        // On a second connection: the export's own one is streaming
+        for (Object[] row : lookups.execute(status -> userRepository.findNamesByUserIds(studentIds))) {
+            students.put((Long) row[0], row);
+        }
+
+        StringBuilder line = new StringBuilder(256);
+        for (Attendance attendance : chunk) {
+            Object[] student = students.get(attendance.getStudentID());
+            // Same placeholders as the attendance overview
+            String username = student != null ? (String) student[1] : null;
+            String studentName = student != null ? student[2] + " " + student[3] : "Unknown Student";
+            String studentBatch = student != null && student[4] != null ? ((String) student[4]).trim() : "No Batch";
+            String courseTitle = courseTitles.getOrDefault(attendance.getCourseCode(), attendance.getCourseCode());
+
+            line.setLength(0);
+            line.append(attendance.getAttendanceID()).append(',')
+                .append(attendance.getStudentID()).append(',');
+            appendField(line, username).append(',');
+            appendField(line, studentName).append(',');
+            appendField(line, studentBatch).append(',');
+            appendField(line, attendance.getCourseCode()).append(',');
+            appendField(line, courseTitle).append(',');
+            line.append(attendance.getSessionID() != null ? attendance.getSessionID() : "").append(',');
+            appendField(line, attendance.getStatus()).append(',');
+            line.append(attendance.getTimestamp() != null ? attendance.getTimestamp() : "").append('\n');
+            writer.append(line);
+        }
+        return chunk.size();
+    }
+
+    /**
+     * Append a CSV field, quoted when it contains a comma, quote or line break (RFC 4180).
+     */
+    static StringBuilder appendField(StringBuilder line, String value) {
+        if (value == null) {
+            return line;
+        }
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+            || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            return line.append(value);
+        }
+        return line.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+}
@@ -0,0 +1,135 @@
+package com.university.attendance.service;
+
+import com.university.attendance.entity.Attendance;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Append-only file of the marks accepted by AttendanceWriteBehindQueue, so that a mark acknowledged to the
+ * student survives a crash before the flusher wrote it.
+ *
+ * Each mark is appended as one tab-separated line and forced to disk before enqueue returns. The queue clears
+ * the file whenever it has nothing left to write, and replays what is left in it on startup. A line torn by
+ * the crash is skipped.
+ */
+@Component
+public class AttendanceJournal {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttendanceJournal.class);
+
+    @Value("${attendance.write-behind.journal-path:data/attendance-journal.log}")
+    private String journalPath;
+
+    private Path path;
+    private FileChannel channel;
+    /** Orders appends against clearIf; a plain lock so virtual threads do not pin their carrier. */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @PostConstruct
+    public void open() throws IOException {
+        path = Paths.get(journalPath);
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Marks left in the journal by the previous run, oldest first.
+     */
+    public List<Attendance> readPending() throws IOException {
+        List<Attendance> pending = new ArrayList<>();
+        for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                pending.add(decode(line));
+            } catch (RuntimeException e) {
+                logger.warn("Skipping unreadable attendance journal entry: {}", line);
+            }
+        }
+        return pending;
+    }
+
+    /**
+     * Append a mark and force it to disk.
+     */
+    public void append(Attendance attendance) throws IOException {
+        ByteBuffer entry = ByteBuffer.wrap((encode(attendance) + "\n").getBytes(StandardCharsets.UTF_8));
+        lock.lock();
+        try {
+            while (entry.hasRemaining()) {
+                channel.write(entry);
+            }
+        } finally {
+            lock.unlock();
+        }
+        // Outside the lock, so concurrent marks share the disk flushes instead of queueing behind each other
+        channel.force(false);
+    }
+
+    /**
+     * Empty the journal if, checked while no append is in progress, nothing it holds is still unwritten.
+     */
+    public void clearIf(BooleanSupplier nothingUnwritten) {
+        lock.lock();
+        try {
+            if (nothingUnwritten.getAsBoolean() && channel.size() > 0) {
+                channel.truncate(0);
+            }
+        } catch (IOException e) {
+            logger.warn("Could not clear attendance journal {}", path, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static String encode(Attendance attendance) {
+        return String.join("\t",
+            String.valueOf(attendance.getSessionID()),
+            String.valueOf(attendance.getStudentID()),
+            attendance.getCourseCode() != null ? attendance.getCourseCode() : "",
+            attendance.getAttendanceCode() != null ? attendance.getAttendanceCode() : "",
+            attendance.getTimestamp().toString(),
+            attendance.getStatus());
+    }
+
+    private static Attendance decode(String line) {
+        String[] fields = line.split("\t", -1);
+        if (fields.length != 6) {
+            throw new IllegalArgumentException("Expected 6 fields, got " + fields.length);
+        }
+        Attendance attendance = new Attendance();
+        attendance.setSessionID(Long.valueOf(fields[0]));
+        attendance.setStudentID(Long.valueOf(fields[1]));
+        attendance.setCourseCode(fields[2].isEmpty() ? null : fields[2]);
+        attendance.setAttendanceCode(fields[3].isEmpty() ? null : fields[3]);
+        attendance.setTimestamp(Instant.parse(fields[4]));
+        attendance.setStatus(fields[5]);
+        return attendance;
+    }
+}
@@ -0,0 +1,221 @@
+package com.university.attendance.service;
+
+import com.university.attendance.dto.AttendanceTrendBucket;
+import com.university.attendance.dto.BatchAttendanceSummary;
+import com.university.attendance.dto.CourseAttendanceRate;
+import com.university.attendance.entity.UserRole;
+import com.university.attendance.repository.AttendanceDailyRollupRepository;
+import com.university.attendance.repository.AttendanceSummaryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Admin dashboard reports computed as GROUP BY aggregates in the database.
+ *
+ * Results are kept until attendance is written (AttendanceSummaryService calls attendanceWritten
+ * after every insert and when a session ends) or until they are max-age-seconds old
+ * (batch-summary-max-age-seconds for the batch summary), whichever comes first, so repeated
+ * dashboard refreshes between check-ins cost no queries at all.
+ */
+@Service
+public class AttendanceReportService {
+
+    private static final String COURSE_RATES = "courseRates";
+    private static final String COURSE_BATCH_RATES = "courseBatchRates";
+    private static final String BATCH_SUMMARIES = "batchSummaries";
+    private static final String TRENDS = "trends";
+
+    @Autowired
+    private AttendanceSummaryRepository attendanceSummaryRepository;
+
+    @Autowired
+    private AttendanceDailyRollupRepository attendanceDailyRollupRepository;
+
+    @Value("${attendance.reports.max-age-seconds:60}")
+    private long maxAgeSeconds;
+
+    /** Student counts also change when users are created or moved between batches, which is not signalled. */
+    @Value("${attendance.reports.batch-summary-max-age-seconds:30}")
+    private long batchSummaryMaxAgeSeconds;
+
+    private final Map<String, CachedReport> reports = new ConcurrentHashMap<>();
+
+    /** Bumped on every write; a report that overlapped one is returned but not cached. */
+    private final AtomicLong writes = new AtomicLong();
+
+    /**
+     * Expected and attended counts per course, or per course and student batch, from the per-student
+     * summaries, which also count the sessions a student missed.
+     */
+    public List<CourseAttendanceRate> getCourseAttendanceRates(boolean byBatch) {
+        return byBatch
+            ? cached(COURSE_BATCH_RATES, maxAgeSeconds, () -> List.copyOf(attendanceSummaryRepository.findCourseBatchAttendanceRates()))
+            : cached(COURSE_RATES, maxAgeSeconds, () -> List.copyOf(attendanceSummaryRepository.findCourseAttendanceRates()));
+    }
+
+    /**
+     * Student count and expected / attended session counts per student batch.
+     */
+    public List<BatchAttendanceSummary> getBatchSummaries() {
+        return cached(BATCH_SUMMARIES, batchSummaryMaxAgeSeconds,
+            () -> List.copyOf(attendanceSummaryRepository.findBatchAttendanceSummaries(UserRole.STUDENT)));
+    }
+
+    /**
+     * Courses (or course/batch pairs) whose attendance rate is below the threshold percentage.
+     */
+    public List<CourseAttendanceRate> findBelowThreshold(double threshold, boolean byBatch) {
+        return getCourseAttendanceRates(byBatch).stream()
+            .filter(rate -> rate.getTotalRecords() > 0 && rate.getAttendanceRate() < threshold)
+            .toList();
+    }
+
+    /**
+     * Attendance of today, this week (since Monday) and this month, optionally for one course and/or batch.
+     * Read with a single query over at most ~5 weeks of daily rollup rows.
+     */
+    public Map<String, AttendanceTrendBucket> getTrends(String courseCode, String batch) {
+        LocalDate today = LocalDate.now();
+        String key = TRENDS + ":" + today + ":" + courseCode + ":" + batch;
+        return cached(key, maxAgeSeconds, () -> {
+            LocalDate weekStart = today.with(DayOfWeek.MONDAY);
+            LocalDate monthStart = today.withDayOfMonth(1);
+            LocalDate from = weekStart.isBefore(monthStart) ? weekStart : monthStart;
+            List<AttendanceTrendBucket> days = dailyBuckets(from, today, courseCode, batch);
+
+            Map<String, AttendanceTrendBucket> trends = new LinkedHashMap<>();
+            trends.put("today", sumSince(days, today));
+            trends.put("week", sumSince(days, weekStart));
+            trends.put("month", sumSince(days, monthStart));
+            return Collections.unmodifiableMap(trends);
+        });
+    }
+
+    /**
+     * Attendance per day, week or month (granularity) from the start of dateRange until today,
+     * optionally for one course and/or batch. Periods without records are left out.
+     */
+    public List<AttendanceTrendBucket> getTrendSeries(String dateRange, String granularity,
+                                                      String courseCode, String batch) {
+        LocalDate today = LocalDate.now();
+        LocalDate from = rangeStart(dateRange, today);
+        return rollUp(dailyBuckets(from != null ? from : LocalDate.EPOCH, today, courseCode, batch), granularity);
+    }
+
+    /**
+     * First day included for an admin dateRange (today, week, month, semester), or null for the whole history.
+     */
+    public static LocalDate rangeStart(String dateRange, LocalDate today) {
+        if (dateRange == null) {
+            return null;
+        }
+        return switch (dateRange) {
+            case "today" -> today;
+            case "week" -> today.with(DayOfWeek.MONDAY);
+            case "month" -> today.withDayOfMonth(1);
+            case "semester" -> today.minusMonths(6);
+            default -> null;
+        };
+    }
+
+    /**
+     * Fold daily buckets (sorted by day) into weeks starting Monday or months starting on the 1st.
+     * Any granularity other than week or month returns the days unchanged.
+     */
+    public static List<AttendanceTrendBucket> rollUp(List<AttendanceTrendBucket> days, String granularity) {
+        if (!"week".equals(granularity) && !"month".equals(granularity)) {
+            return days;
+        }
+        List<AttendanceTrendBucket> periods = new ArrayList<>();
+        AttendanceTrendBucket current = null;
+        for (AttendanceTrendBucket day : days) {
+            LocalDate start = "week".equals(granularity)
+                ? day.getPeriodStart().with(DayOfWeek.MONDAY)
+                : day.getPeriodStart().withDayOfMonth(1);
+            if (current == null || !current.getPeriodStart().equals(start)) {
+                current = new AttendanceTrendBucket(start, 0, 0, 0);
+                periods.add(current);
+            }
+            current.setTotalRecords(current.getTotalRecords() + day.getTotalRecords());
+            current.setPresentRecords(current.getPresentRecords() + day.getPresentRecords());
+            current.setMissedRecords(current.getMissedRecords() + day.getMissedRecords());
+        }
+        return periods;
+    }
+
+    private List<AttendanceTrendBucket> dailyBuckets(LocalDate from, LocalDate to, String courseCode, String batch) {
+        List<AttendanceTrendBucket> days = new ArrayList<>();
+        for (Object[] row : attendanceDailyRollupRepository.sumByDay(from, to, courseCode, batch)) {
+            days.add(new AttendanceTrendBucket((LocalDate) row[0],
+                ((Number) row[1]).longValue(), ((Number) row[2]).longValue(), ((Number) row[3]).longValue()));
+        }
+        return days;
+    }
+
+    private static AttendanceTrendBucket sumSince(List<AttendanceTrendBucket> days, LocalDate from) {
+        long total = 0;
+        long present = 0;
+        long missed = 0;
+        for (AttendanceTrendBucket day : days) {
+            if (!day.getPeriodStart().isBefore(from)) {
+                total += day.getTotalRecords();
+                present += day.getPresentRecords();
+                missed += day.getMissedRecords();
+            }
+        }
+        return new AttendanceTrendBucket(from, total, present, missed);
+    }
+
+    /**
+     * Drop all cached reports, again after the current transaction commits if there is one.
+     */
+    public void attendanceWritten() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            clear();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    clear();
+                }
+            });
+        } else {
+            clear();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T cached(String key, long maxAge, Supplier<T> loader) {
+        CachedReport report = reports.get(key);
+        long now = System.currentTimeMillis();
+        if (report != null && now - report.loadedAt < maxAge * 1000) {
+            return (T) report.value;
+        }
+        long writesBeforeLoad = writes.get();
+        T value = loader.get();
+        if (writes.get() == writesBeforeLoad) {
+            reports.put(key, new CachedReport(value, now));
+        }
+        return value;
+    }
+
+    private void clear() {
+        writes.incrementAndGet();
+        reports.clear();
+    }
+
+    private record CachedReport(Object value, long loadedAt) {}
+}
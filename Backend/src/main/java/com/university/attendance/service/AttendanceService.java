@@ -1,5 +1,6 @@
 package com.university.attendance.service;
 
+import com.university.attendance.dto.AttendeeDetailsResponse;
 import com.university.attendance.dto.GenerateCodeResponse;
 import com.university.attendance.dto.StudentSessionResponse;
 import com.university.attendance.entity.Attendance;
@@ -7,10 +8,11 @@ import com.university.attendance.entity.ClassSession;
 import com.university.attendance.entity.SessionStatus;
 import com.university.attendance.repository.AttendanceRepository;
 import com.university.attendance.repository.ClassSessionRepository;
-import com.university.attendance.repository.EnrollmentRepository;
-import com.university.attendance.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 import java.util.List;
@@ -29,10 +31,41 @@ public class AttendanceService {
     private AttendanceRepository attendanceRepository;
     
     @Autowired
-    private UserRepository userRepository;
-    
+    private EnrollmentCache enrollmentCache;
+
+    @Autowired
+    private ActiveSessionRegistry activeSessionRegistry;
+
+    @Autowired
+    private AttendanceWriteBehindQueue attendanceWriteBehindQueue;
+
     @Autowired
-    private EnrollmentRepository enrollmentRepository;
+    private AttendeeStreamService attendeeStreamService;
+
+    @Autowired
+    private AttendanceSummaryService attendanceSummaryService;
+
+    @Autowired
+    private SessionExpiryScheduler sessionExpiryScheduler;
+
+    @Autowired
+    private ActivityFeed activityFeed;
+
+    /**
+     * Load the open sessions into the registry so lookups by code and by course work from the start.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOpenSessions() {
+        Instant now = Instant.now();
+        for (ClassSession session : classSessionRepository.findByStatus(SessionStatus.ACTIVE)) {
+            if (Boolean.TRUE.equals(session.getIsActive())
+                    && session.getExpiryTime() != null && !now.isBefore(session.getExpiryTime())) {
+                // Already over; SessionExpiryScheduler ends it on its first tick
+                continue;
+            }
+            activeSessionRegistry.load(session, attendanceRepository.findStudentIDsBySessionID(session.getSessionID()));
+        }
+    }
 
     public GenerateCodeResponse generateCode(String courseCode, String teacherName, String teacherUsername) {
         ClassSession session = new ClassSession();
@@ -48,18 +81,31 @@ public class AttendanceService {
         session.setTeacherName(teacherName);
         session.setTeacherUsername(teacherUsername);
         classSessionRepository.save(session);
+        activeSessionRegistry.track(session);
+        sessionExpiryScheduler.track(session);
+        activityFeed.sessionGenerated(session);
         return new GenerateCodeResponse(session.getAccessCode(), session.getSessionID());
     }
 
     public ClassSession startAttendance(Long sessionId, int durationSeconds) {
         Optional<ClassSession> sessionOpt = classSessionRepository.findById(sessionId);
         ClassSession session = sessionOpt.orElseThrow(() -> new RuntimeException("Session not found"));
+
+        if (SessionStatus.ENDED.equals(session.getStatus())) {
+            if (wasStarted(session)) {
+                throw new RuntimeException("Attendance session has already ended");
+            }
+            // A code generated on page load that was ended before it was ever started; open it again
+            session.setStatus(SessionStatus.ACTIVE);
+            session.setEndTime(null);
+        }
         
-        // Check if attendance records already exist for this session
-        List<Attendance> existingAttendances = attendanceRepository.findBySessionID(sessionId);
+        // Check if attendance records already exist for this session, including marks still in the write-behind queue
+        boolean alreadyMarked = !activeSessionRegistry.markedStudents(sessionId).isEmpty()
+            || !attendanceRepository.findBySessionID(sessionId).isEmpty();
         
         Instant startTime;
-        if (!existingAttendances.isEmpty()) {
+        if (alreadyMarked) {
             // If students have already marked attendance, keep the original scheduled time
             // to ensure their attendance remains valid
             startTime = session.getScheduledTime();
@@ -74,7 +120,11 @@ public class AttendanceService {
         session.setExpiryTime(startTime.plusSeconds(durationSeconds));
         session.setIsActive(true);
         
-        return classSessionRepository.save(session);
+        ClassSession savedSession = classSessionRepository.save(session);
+        activeSessionRegistry.track(savedSession);
+        sessionExpiryScheduler.track(savedSession);
+        activityFeed.sessionStarted(savedSession);
+        return savedSession;
     }
     
     public ClassSession startAttendance(Long sessionId, int durationSeconds, Double teacherLatitude, Double teacherLongitude, String location) {
@@ -107,6 +157,7 @@ public class AttendanceService {
         // Force save the session with location data
         System.out.println("💾 SERVICE: Saving session to database...");
         ClassSession savedSession = classSessionRepository.save(session);
+        activeSessionRegistry.track(savedSession);
         
         // Verify what was actually saved
         System.out.println("✅ SERVICE: Session saved! Verifying saved data...");
@@ -127,9 +178,9 @@ public class AttendanceService {
     }
 
     public Attendance markAttendance(String code, Long studentId, String courseCode) {
-        ClassSession session = classSessionRepository
-                .findTopByAccessCodeOrderBySessionIDDesc(code)
-                .orElseThrow(() -> new RuntimeException("Invalid code"));
+        // Open sessions are served from the in-memory registry; only a miss (e.g. after a restart) hits the database
+        ActiveSessionRegistry.ActiveSession session = activeSessionRegistry.find(code)
+                .orElseGet(() -> loadSessionForMarking(code));
         
         // Check if session is active
         if (!SessionStatus.ACTIVE.equals(session.getStatus())) {
@@ -137,7 +188,7 @@ public class AttendanceService {
         }
         
         // Check if session is paused
-        if (!Boolean.TRUE.equals(session.getIsActive())) {
+        if (!session.isActive()) {
             throw new RuntimeException("Attendance session is currently paused");
         }
         
@@ -145,11 +196,6 @@ public class AttendanceService {
             throw new RuntimeException("Attendance session expired");
         }
         
-        // Check if student already marked attendance for this session
-        if (attendanceRepository.existsByStudentIDAndSessionID(studentId, session.getSessionID())) {
-            throw new RuntimeException("You have already marked attendance for this session");
-        }
-        
         // Validate attendance time is within session window
         Instant now = Instant.now();
         Instant sessionStart = session.getScheduledTime();
@@ -163,89 +209,47 @@ public class AttendanceService {
             throw new RuntimeException("Attendance session has expired");
         }
         
+        // Check if student already marked attendance for this session (claims the slot atomically;
+        // throws if the session was ended since it was validated above)
+        if (!activeSessionRegistry.markIfAbsent(session.getSessionId(), studentId)) {
+            throw new RuntimeException("You have already marked attendance for this session");
+        }
+        
         Attendance attendance = new Attendance();
         attendance.setStudentID(studentId);
         attendance.setCourseCode(courseCode);
-        attendance.setSessionID(session.getSessionID());
+        attendance.setSessionID(session.getSessionId());
         attendance.setAttendanceCode(code);
         attendance.setTimestamp(now);
         attendance.setStatus("PRESENT");
-        return attendanceRepository.save(attendance);
+        try {
+            // The insert is written behind in batches; fall back to a direct save only when the queue is saturated
+            Attendance accepted = attendanceWriteBehindQueue.enqueue(attendance)
+                    ? attendance
+                    : attendanceSummaryService.saveMarked(List.of(attendance)).get(0);
+            attendeeStreamService.publishMarked(accepted);
+            return accepted;
+        } catch (RuntimeException e) {
+            activeSessionRegistry.unmark(session.getSessionId(), studentId);
+            throw e;
+        }
+    }
+    
+    private ActiveSessionRegistry.ActiveSession loadSessionForMarking(String code) {
+        ClassSession session = classSessionRepository
+                .findTopByAccessCodeOrderBySessionIDDesc(code)
+                .orElseThrow(() -> new RuntimeException("Invalid code"));
+        activeSessionRegistry.load(session, attendanceRepository.findStudentIDsBySessionID(session.getSessionID()));
+        return activeSessionRegistry.find(code).orElseGet(() -> ActiveSessionRegistry.ActiveSession.of(session));
     }
 
     public List<Attendance> getAttendees(Long sessionId) {
         return attendanceRepository.findBySessionID(sessionId);
     }
     
-    public List<Map<String, Object>> getAttendeesWithDetails(Long sessionId) {
-        // First get the session to check its time window
-        Optional<ClassSession> sessionOpt = classSessionRepository.findById(sessionId);
-        if (!sessionOpt.isPresent()) {
-            System.out.println("DEBUG: Session not found for ID: " + sessionId);
-            return new java.util.ArrayList<>();
-        }
-        
-        ClassSession session = sessionOpt.get();
-        Instant sessionStart = session.getScheduledTime();
-        Instant sessionEnd = session.getExpiryTime();
-        
-        System.out.println("DEBUG: Session found - ID: " + sessionId + 
-                          ", Start: " + sessionStart + 
-                          ", End: " + sessionEnd + 
-                          ", Code: " + session.getAccessCode());
-        
-        // Get all attendance records for this session
-        List<Attendance> allAttendances = attendanceRepository.findBySessionID(sessionId);
-        System.out.println("DEBUG: Found " + allAttendances.size() + " total attendance records for session " + sessionId);
-        
-        // Filter only records within the session's time window
-        List<Attendance> validAttendances = allAttendances.stream()
-            .filter(attendance -> {
-                Instant attendanceTime = attendance.getTimestamp();
-                boolean timeValid = (!attendanceTime.isBefore(sessionStart)) && 
-                                  (!attendanceTime.isAfter(sessionEnd));
-                boolean codeValid = attendance.getAttendanceCode().equals(session.getAccessCode());
-                
-                System.out.println("DEBUG: Attendance record - Time: " + attendanceTime + 
-                                 ", Code: " + attendance.getAttendanceCode() + 
-                                 ", TimeValid: " + timeValid + 
-                                 ", CodeValid: " + codeValid + 
-                                 ", StudentID: " + attendance.getStudentID());
-                
-                return timeValid && codeValid;
-            })
-            .collect(java.util.stream.Collectors.toList());
-            
-        System.out.println("DEBUG: " + validAttendances.size() + " valid attendance records after filtering");
-        
-        return validAttendances.stream().map(attendance -> {
-            Map<String, Object> details = new HashMap<>();
-            details.put("attendanceId", attendance.getAttendanceID());
-            details.put("studentId", attendance.getStudentID());
-            details.put("attendanceCode", attendance.getAttendanceCode());
-            details.put("timestamp", attendance.getTimestamp());
-            details.put("status", attendance.getStatus());
-            details.put("createdAt", attendance.getTimestamp());
-            details.put("sessionStart", sessionStart);
-            details.put("sessionEnd", sessionEnd);
-            
-            // Get student details from User table
-            try {
-                var user = userRepository.findById(attendance.getStudentID());
-                if (user.isPresent()) {
-                    details.put("studentName", user.get().getFirstName() + " " + user.get().getLastName());
-                    details.put("rollNumber", user.get().getUsername());
-                } else {
-                    details.put("studentName", "Unknown Student");
-                    details.put("rollNumber", "N/A");
-                }
-            } catch (Exception e) {
-                details.put("studentName", "Unknown Student");
-                details.put("rollNumber", "N/A");
-            }
-            
-            return details;
-        }).collect(java.util.stream.Collectors.toList());
+    public List<AttendeeDetailsResponse> getAttendeesWithDetails(Long sessionId) {
+        // Time-window and code checks and the student lookup all happen in one joined query
+        return attendanceRepository.findAttendeeDetailsBySessionID(sessionId);
     }
     
     public Optional<ClassSession> getActiveSession(String courseCode) {
@@ -256,17 +260,65 @@ public class AttendanceService {
                                  Instant.now().isBefore(session.getExpiryTime()));
     }
     
+    @Transactional
     public ClassSession stopSession(Long sessionId) {
         Optional<ClassSession> sessionOpt = classSessionRepository.findById(sessionId);
         ClassSession session = sessionOpt.orElseThrow(() -> new RuntimeException("Session not found"));
+        return endSession(session, Instant.now());
+    }
+
+    /**
+     * End a running session whose expiry time has passed. Called by SessionExpiryScheduler.
+     * @return false if the session was stopped, paused or extended in the meantime
+     */
+    @Transactional
+    public boolean expireSession(Long sessionId) {
+        Optional<ClassSession> sessionOpt = classSessionRepository.findById(sessionId);
+        if (sessionOpt.isEmpty()) {
+            return false;
+        }
+        ClassSession session = sessionOpt.get();
+        if (!SessionStatus.ACTIVE.equals(session.getStatus())
+                || !Boolean.TRUE.equals(session.getIsActive())
+                || session.getExpiryTime() == null) {
+            return false;
+        }
+        if (session.getExpiryTime().isAfter(Instant.now())) {
+            sessionExpiryScheduler.track(session);
+            return false;
+        }
+        endSession(session, session.getExpiryTime());
+        return true;
+    }
+
+    private ClassSession endSession(ClassSession session, Instant endTime) {
+        Long sessionId = session.getSessionID();
+        boolean alreadyEnded = SessionStatus.ENDED.equals(session.getStatus());
         
         session.setStatus(SessionStatus.ENDED);
-        session.setEndTime(Instant.now());
+        session.setEndTime(endTime);
         session.setIsActive(false);
         
-        return classSessionRepository.save(session);
+        ClassSession savedSession = classSessionRepository.save(session);
+        // Count the session as missed for absent students, once, in the same transaction.
+        // A generated code that was never started is not a class, so nobody missed it.
+        if (!alreadyEnded && wasStarted(savedSession)) {
+            attendanceSummaryService.recordSessionEnded(savedSession, activeSessionRegistry.markedStudents(sessionId));
+            activityFeed.sessionStopped(savedSession);
+        }
+        activeSessionRegistry.evict(savedSession);
+        sessionExpiryScheduler.track(savedSession);
+        attendeeStreamService.publishSessionEnded(sessionId);
+        return savedSession;
     }
     
+    /**
+     * Whether the teacher started attendance for the session; generateCode leaves durationMinutes at 0.
+     */
+    public static boolean wasStarted(ClassSession session) {
+        return session.getDurationMinutes() != null && session.getDurationMinutes() > 0;
+    }
+
     public ClassSession pauseSession(Long sessionId) {
         Optional<ClassSession> sessionOpt = classSessionRepository.findById(sessionId);
         ClassSession session = sessionOpt.orElseThrow(() -> new RuntimeException("Session not found"));
@@ -290,7 +342,10 @@ public class AttendanceService {
         session.setIsActive(false);
         session.setRemainingTime((int) remainingSeconds);
         
-        return classSessionRepository.save(session);
+        ClassSession savedSession = classSessionRepository.save(session);
+        activeSessionRegistry.track(savedSession);
+        sessionExpiryScheduler.track(savedSession);
+        return savedSession;
     }
     
     public ClassSession resumeSession(Long sessionId) {
@@ -311,7 +366,10 @@ public class AttendanceService {
         session.setIsActive(true);
         session.setRemainingTime(null); // Clear remaining time as session is now active
         
-        return classSessionRepository.save(session);
+        ClassSession savedSession = classSessionRepository.save(session);
+        activeSessionRegistry.track(savedSession);
+        sessionExpiryScheduler.track(savedSession);
+        return savedSession;
     }
     
     public Optional<ClassSession> getCurrentActiveSession(String courseCode) {
@@ -338,40 +396,29 @@ public class AttendanceService {
     }
     
     public Optional<StudentSessionResponse> getCurrentActiveSessionForStudentId(Long studentId) {
-        System.out.println("DEBUG: Finding active sessions for student ID: " + studentId);
-        
-        // First, get all courses the student is enrolled in
-        List<String> enrolledCourses = enrollmentRepository.findCourseCodesByStudentId(studentId);
-        System.out.println("DEBUG: Student enrolled in courses: " + enrolledCourses);
-        
+        List<String> enrolledCourses = enrollmentCache.getStudentCourseCodes(studentId);
         if (enrolledCourses.isEmpty()) {
-            System.out.println("DEBUG: Student not enrolled in any courses");
             return Optional.empty();
         }
-        
-        // Find any active session in the student's enrolled courses
-        for (String courseCode : enrolledCourses) {
-            Optional<ClassSession> activeSession = getCurrentActiveSession(courseCode);
-            if (activeSession.isPresent()) {
-                System.out.println("DEBUG: Found active session for course: " + courseCode + 
-                                 ", Session ID: " + activeSession.get().getSessionID());
-                ClassSession session = activeSession.get();
-                return Optional.of(new StudentSessionResponse(
-                    session.getSessionID(),
+
+        // One in-memory lookup across all enrolled courses instead of a query per course
+        Instant now = Instant.now();
+        return activeSessionRegistry.findByCourses(enrolledCourses).stream()
+                .filter(session -> session.isActive() &&
+                                 session.getExpiryTime() != null &&
+                                 now.isBefore(session.getExpiryTime()))
+                .findFirst()
+                .map(session -> new StudentSessionResponse(
+                    session.getSessionId(),
                     session.getCourseCode(),
                     session.getAccessCode(),
                     session.getExpiryTime(),
                     session.getStatus(),
-                    session.getIsActive(),
+                    session.isActive(),
                     session.getTeacherName(),
                     session.getTeacherUsername(),
                     session.getRemainingTime()
                 ));
-            }
-        }
-        
-        System.out.println("DEBUG: No active sessions found for any enrolled courses");
-        return Optional.empty();
     }
     
     public boolean isSessionActive(Long sessionId) {
@@ -403,6 +450,21 @@ public class AttendanceService {
                 .orElseThrow(() -> new RuntimeException("Session not found"));
     }
     
+    /**
+     * Set the classroom reference point used for location verification.
+     */
+    public ClassSession updateSessionLocation(Long sessionId, Double latitude, Double longitude, String location) {
+        ClassSession session = getSession(sessionId);
+        session.setTeacherLatitude(latitude);
+        session.setTeacherLongitude(longitude);
+        if (location != null) {
+            session.setLocation(location);
+        }
+        ClassSession saved = classSessionRepository.save(session);
+        activeSessionRegistry.track(saved);
+        return saved;
+    }
+    
     public Map<String, Object> getSessionStatistics(Long sessionId) {
         Map<String, Object> stats = new HashMap<>();
         
@@ -413,7 +475,7 @@ public class AttendanceService {
         }
         
         ClassSession session = sessionOpt.get();
-        List<Map<String, Object>> validAttendees = getAttendeesWithDetails(sessionId);
+        List<AttendeeDetailsResponse> validAttendees = getAttendeesWithDetails(sessionId);
         
         stats.put("sessionId", sessionId);
         stats.put("sessionStart", session.getScheduledTime());
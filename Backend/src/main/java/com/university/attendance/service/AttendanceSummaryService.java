@@ -0,0 +1,134 @@
+package com.university.attendance.service;
+
+import com.university.attendance.entity.Attendance;
+import com.university.attendance.entity.AttendanceSummary;
+import com.university.attendance.entity.ClassSession;
+import com.university.attendance.repository.AttendanceDailyRollupRepository;
+import com.university.attendance.repository.AttendanceRepository;
+import com.university.attendance.repository.AttendanceSummaryRepository;
+import com.university.attendance.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps the per-student, per-course attendance_summary counters in step with the attendance table,
+ * so student dashboards read a handful of counter rows instead of scanning attendance history.
+ * The daily per-course, per-batch attendance_daily_rollup buckets behind the admin trends are
+ * maintained the same way.
+ */
+@Service
+public class AttendanceSummaryService {
+
+    @Autowired
+    private AttendanceRepository attendanceRepository;
+
+    @Autowired
+    private AttendanceSummaryRepository attendanceSummaryRepository;
+
+    @Autowired
+    private AttendanceDailyRollupRepository attendanceDailyRollupRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AttendanceReportService attendanceReportService;
+
+    /**
+     * Insert attendance rows and count them in the summary and the daily rollups within one transaction.
+     */
+    @Transactional
+    public List<Attendance> saveMarked(List<Attendance> marks) {
+        List<Attendance> saved = attendanceRepository.saveAll(marks);
+        for (Attendance attendance : saved) {
+            if (attendance.getCourseCode() == null) {
+                continue;
+            }
+            long attended = "PRESENT".equals(attendance.getStatus()) ? 1 : 0;
+            attendanceSummaryRepository.addMarked(attendance.getStudentID(), attendance.getCourseCode(),
+                    attended, 1, attendance.getTimestamp());
+        }
+        addToDailyRollups(saved);
+        attendanceReportService.attendanceWritten();
+        return saved;
+    }
+
+    /**
+     * Count an ended session as missed for the enrolled students that did not mark it.
+     * @param pendingMarks students whose mark may still be in the write-behind queue
+     */
+    @Transactional
+    public void recordSessionEnded(ClassSession session, Collection<Long> pendingMarks) {
+        if (session.getCourseCode() == null) {
+            return;
+        }
+        // NOT IN () is invalid SQL; -1 never matches a user id
+        Collection<Long> excluded = pendingMarks.isEmpty() ? List.of(-1L) : pendingMarks;
+        attendanceSummaryRepository.addMissedSession(session.getSessionID(), session.getCourseCode(), excluded);
+        // Missed classes count on the day the session was scheduled for
+        Instant scheduled = session.getScheduledTime() != null ? session.getScheduledTime() : Instant.now();
+        attendanceDailyRollupRepository.addMissedSession(rollupDay(scheduled), session.getSessionID(),
+                session.getCourseCode(), excluded);
+        attendanceReportService.attendanceWritten();
+    }
+
+    /**
+     * Day the rollups count an attendance timestamp in (server time zone, as the admin date ranges).
+     */
+    public static LocalDate rollupDay(Instant timestamp) {
+        return timestamp.atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
+    private void addToDailyRollups(List<Attendance> saved) {
+        Set<Long> studentIds = new HashSet<>();
+        for (Attendance attendance : saved) {
+            if (attendance.getCourseCode() != null) {
+                studentIds.add(attendance.getStudentID());
+            }
+        }
+        if (studentIds.isEmpty()) {
+            return;
+        }
+        Map<Long, String> batches = new HashMap<>();
+        for (Object[] row : userRepository.findBatchesByUserIds(studentIds)) {
+            if (row[1] != null) {
+                batches.put((Long) row[0], ((String) row[1]).trim());
+            }
+        }
+
+        // A write-behind batch is mostly one session, so it collapses into one or two buckets
+        Map<RollupKey, long[]> buckets = new LinkedHashMap<>();
+        for (Attendance attendance : saved) {
+            if (attendance.getCourseCode() == null) {
+                continue;
+            }
+            RollupKey key = new RollupKey(rollupDay(attendance.getTimestamp()), attendance.getCourseCode(),
+                    batches.getOrDefault(attendance.getStudentID(), ""));
+            long[] counts = buckets.computeIfAbsent(key, k -> new long[2]);
+            counts[0]++;
+            if ("PRESENT".equals(attendance.getStatus())) {
+                counts[1]++;
+            }
+        }
+        buckets.forEach((key, counts) ->
+            attendanceDailyRollupRepository.addMarked(key.day(), key.courseCode(), key.batch(), counts[0], counts[1]));
+    }
+
+    private record RollupKey(LocalDate day, String courseCode, String batch) {}
+
+    public List<AttendanceSummary> getSummaries(Long studentId) {
+        return attendanceSummaryRepository.findByStudentID(studentId);
+    }
+}
@@ -0,0 +1,265 @@
+package com.university.attendance.service;
+
+import com.university.attendance.entity.Attendance;
+import com.university.attendance.repository.AttendanceRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Write-behind pipeline for accepted attendance marks.
+ *
+ * Marks are put on a bounded queue and a single flusher thread writes them (together with their summary counters) in batches
+ * of up to batch-size rows, waiting at most flush-interval-ms for a batch to fill. Together with the
+ * table-based Attendance ID generator and hibernate.jdbc.batch_size this turns a check-in burst into a
+ * handful of batched inserts. Rows that still fail when written one by one are kept and retried with
+ * exponential backoff (retry-backoff-ms, doubled per attempt) until retry-max-attempts is reached.
+ * The queue lives in memory and is drained on shutdown; every accepted mark is also written to the
+ * AttendanceJournal first, and marks left there by a crash are written on the next startup unless the
+ * database already has them.
+ */
+@Component
+public class AttendanceWriteBehindQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttendanceWriteBehindQueue.class);
+
+    @Autowired
+    private AttendanceSummaryService attendanceSummaryService;
+
+    @Autowired
+    private ActiveSessionRegistry activeSessionRegistry;
+
+    @Autowired
+    private AttendanceJournal journal;
+
+    @Autowired
+    private AttendanceRepository attendanceRepository;
+
+    @Value("${attendance.write-behind.capacity:10000}")
+    private int capacity;
+
+    @Value("${attendance.write-behind.batch-size:100}")
+    private int batchSize;
+
+    @Value("${attendance.write-behind.flush-interval-ms:20}")
+    private long flushIntervalMs;
+
+    @Value("${attendance.write-behind.enqueue-timeout-ms:50}")
+    private long enqueueTimeoutMs;
+
+    @Value("${attendance.write-behind.retry-backoff-ms:500}")
+    private long retryBackoffMs;
+
+    @Value("${attendance.write-behind.retry-max-attempts:6}")
+    private int retryMaxAttempts;
+
+    private BlockingQueue<Attendance> queue;
+    private final ConcurrentLinkedQueue<FailedMark> retries = new ConcurrentLinkedQueue<>();
+    /** Accepted marks that are neither written nor dropped yet, including the batch being flushed. */
+    private final AtomicInteger unwritten = new AtomicInteger();
+    private Thread flusher;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() throws IOException {
+        queue = new ArrayBlockingQueue<>(capacity);
+        replayJournal();
+        running = true;
+        flusher = new Thread(this::runFlusher, "attendance-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        flusher.interrupt();
+        flusher.join(TimeUnit.SECONDS.toMillis(10));
+        // Write whatever the flusher did not get to
+        List<Attendance> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            flush(remaining);
+        }
+        // Last attempt for rows waiting on a retry, without waiting for their backoff
+        FailedMark failed;
+        while ((failed = retries.poll()) != null) {
+            saveRow(failed.attendance(), failed.attempts(), false);
+        }
+        journal.clearIf(() -> unwritten.get() == 0);
+    }
+
+    /**
+     * Hand an attendance record to the flusher. It is journaled before this returns true.
+     * @return false if the queue stayed full for enqueue-timeout-ms; the caller should then save synchronously
+     */
+    public boolean enqueue(Attendance attendance) {
+        if (!running) {
+            return false;
+        }
+        try {
+            // Counted before it is journaled, so clearIf cannot drop its entry before it is written
+            unwritten.incrementAndGet();
+            if (!queue.offer(attendance, enqueueTimeoutMs, TimeUnit.MILLISECONDS)) {
+                unwritten.decrementAndGet();
+                return false;
+            }
+            try {
+                journal.append(attendance);
+            } catch (IOException e) {
+                // Already queued, so it is still written unless the process dies first
+                logger.error("Could not journal attendance for student {} in session {}",
+                    attendance.getStudentID(), attendance.getSessionID(), e);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            unwritten.decrementAndGet();
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Marks accepted by enqueue that are not written yet (queued, being flushed or waiting for a retry).
+     */
+    public int pendingCount() {
+        return unwritten.get();
+    }
+
+    private void runFlusher() {
+        List<Attendance> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                retryDue();
+                Attendance first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // Linger until the batch is full or the flush interval has elapsed
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long waitNanos = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || waitNanos <= 0) {
+                        break;
+                    }
+                    Attendance next = queue.poll(waitNanos, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+                journal.clearIf(() -> unwritten.get() == 0);
+            } catch (InterruptedException e) {
+                // stop() interrupts us; anything already taken off the queue is still written below
+                flush(batch);
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                logger.error("Attendance flusher failed on a batch of {} records", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Write the marks a crash left in the journal. Runs before the flusher starts.
+     */
+    private void replayJournal() throws IOException {
+        List<Attendance> pending = new ArrayList<>();
+        Set<List<Long>> seen = new HashSet<>();
+        for (Attendance attendance : journal.readPending()) {
+            if (seen.add(List.of(attendance.getSessionID(), attendance.getStudentID()))
+                    && !attendanceRepository.existsByStudentIDAndSessionID(attendance.getStudentID(), attendance.getSessionID())) {
+                pending.add(attendance);
+            }
+        }
+        if (!pending.isEmpty()) {
+            logger.info("Replaying {} journaled attendance records", pending.size());
+            unwritten.addAndGet(pending.size());
+            flush(pending);
+        }
+        journal.clearIf(() -> unwritten.get() == 0);
+    }
+
+    private void flush(List<Attendance> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            attendanceSummaryService.saveMarked(batch);
+            unwritten.addAndGet(-batch.size());
+        } catch (Exception batchError) {
+            logger.warn("Batched insert of {} attendance records failed, retrying row by row", batch.size(), batchError);
+            for (Attendance attendance : batch) {
+                saveRow(attendance, 0, true);
+            }
+        }
+    }
+
+    /**
+     * Retry the failed rows whose backoff has elapsed. Runs on the flusher thread only.
+     */
+    private void retryDue() {
+        long now = System.nanoTime();
+        for (int i = retries.size(); i > 0; i--) {
+            FailedMark failed = retries.poll();
+            if (failed == null) {
+                return;
+            }
+            if (failed.retryAt() - now > 0) {
+                retries.add(failed);
+            } else {
+                saveRow(failed.attendance(), failed.attempts(), true);
+            }
+        }
+    }
+
+    /**
+     * Write one row; on failure keep it for a later retry while attempts remain, otherwise drop it.
+     * @param attempts failed attempts so far
+     */
+    private void saveRow(Attendance attendance, int attempts, boolean retryOnFailure) {
+        try {
+            attendance.setAttendanceID(null);
+            attendanceSummaryService.saveMarked(List.of(attendance));
+            unwritten.decrementAndGet();
+        } catch (Exception rowError) {
+            int failedAttempts = attempts + 1;
+            if (retryOnFailure && failedAttempts < retryMaxAttempts) {
+                long backoffMs = retryBackoffMs << Math.min(failedAttempts - 1, 20);
+                retries.add(new FailedMark(attendance, failedAttempts,
+                    System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoffMs)));
+                logger.warn("Attendance for student {} in session {} failed to insert (attempt {}), retrying in {} ms",
+                    attendance.getStudentID(), attendance.getSessionID(), failedAttempts, backoffMs, rowError);
+                return;
+            }
+            // Give the student the chance to mark again
+            activeSessionRegistry.unmark(attendance.getSessionID(), attendance.getStudentID());
+            unwritten.decrementAndGet();
+            logger.error("Dropping attendance for student {} in session {} after {} attempts",
+                attendance.getStudentID(), attendance.getSessionID(), failedAttempts, rowError);
+        }
+    }
+
+    private record FailedMark(Attendance attendance, int attempts, long retryAt) {}
+}
@@ -0,0 +1,145 @@
+package com.university.attendance.service;
+
+import com.university.attendance.entity.Attendance;
+import com.university.attendance.entity.User;
+import com.university.attendance.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Pushes the live attendee roster of a session to teacher dashboards over server-sent events.
+ *
+ * markAttendance publishes an "attendee-marked" event per accepted student and stopSession a
+ * "session-ended" event. Events are delivered on a dedicated thread so a slow dashboard never
+ * delays a student's check-in, and the student name is only resolved when someone is listening.
+ */
+@Service
+public class AttendeeStreamService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttendeeStreamService.class);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${attendance.stream.timeout-ms:1800000}")
+    private long streamTimeoutMs;
+
+    private final Map<Long, List<SseEmitter>> emittersBySession = new ConcurrentHashMap<>();
+
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "attendee-stream");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Open a stream of attendee events for a session.
+     */
+    public SseEmitter subscribe(Long sessionId) {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        emittersBySession.computeIfAbsent(sessionId, id -> new CopyOnWriteArrayList<>()).add(emitter);
+        emitter.onCompletion(() -> remove(sessionId, emitter));
+        emitter.onTimeout(() -> remove(sessionId, emitter));
+        emitter.onError(error -> remove(sessionId, emitter));
+
+        try {
+            emitter.send(SseEmitter.event().name("connected").data(Map.of("sessionId", sessionId)));
+        } catch (IOException e) {
+            remove(sessionId, emitter);
+        }
+        return emitter;
+    }
+
+    /**
+     * Announce a newly accepted attendance to everyone watching its session.
+     */
+    public void publishMarked(Attendance attendance) {
+        if (!hasSubscribers(attendance.getSessionID())) {
+            return;
+        }
+        dispatcher.execute(() -> send(attendance.getSessionID(), "attendee-marked", toEvent(attendance)));
+    }
+
+    /**
+     * Tell the watchers that the session is over and close their streams.
+     */
+    public void publishSessionEnded(Long sessionId) {
+        if (!hasSubscribers(sessionId)) {
+            return;
+        }
+        dispatcher.execute(() -> {
+            send(sessionId, "session-ended", Map.of("sessionId", sessionId));
+            List<SseEmitter> emitters = emittersBySession.remove(sessionId);
+            if (emitters != null) {
+                emitters.forEach(SseEmitter::complete);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        emittersBySession.values().forEach(emitters -> emitters.forEach(SseEmitter::complete));
+        emittersBySession.clear();
+    }
+
+    private boolean hasSubscribers(Long sessionId) {
+        List<SseEmitter> emitters = emittersBySession.get(sessionId);
+        return emitters != null && !emitters.isEmpty();
+    }
+
+    private Map<String, Object> toEvent(Attendance attendance) {
+        Map<String, Object> event = new HashMap<>();
+        event.put("attendanceId", attendance.getAttendanceID());
+        event.put("studentId", attendance.getStudentID());
+        event.put("timestamp", attendance.getTimestamp());
+        event.put("status", attendance.getStatus());
+
+        Optional<User> user = userRepository.findById(attendance.getStudentID());
+        if (user.isPresent()) {
+            event.put("studentName", user.get().getFirstName() + " " + user.get().getLastName());
+            event.put("rollNumber", user.get().getUsername());
+        } else {
+            event.put("studentName", "Unknown Student");
+            event.put("rollNumber", "N/A");
+        }
+        return event;
+    }
+
+    private void send(Long sessionId, String eventName, Object data) {
+        List<SseEmitter> emitters = emittersBySession.get(sessionId);
+        if (emitters == null) {
+            return;
+        }
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(SseEmitter.event().name(eventName).data(data));
+            } catch (Exception e) {
+                logger.debug("Dropping attendee stream for session {}: {}", sessionId, e.getMessage());
+                remove(sessionId, emitter);
+            }
+        }
+    }
+
+    private void remove(Long sessionId, SseEmitter emitter) {
+        emittersBySession.computeIfPresent(sessionId, (id, emitters) -> {
+            emitters.remove(emitter);
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+}
@@ -45,6 +45,9 @@ public class AuthService {
     @Autowired
     private AuthenticationManager authenticationManager;
 
+    @Autowired
+    private ActivityFeed activityFeed;
+
     @Value("${admin.signup.secret:}")
     private String adminSignupSecret;
     
@@ -94,6 +97,7 @@ public class AuthService {
         } else {
             throw new RuntimeException("Invalid role specified");
         }
+        activityFeed.userCreated(user);
         
         // Generate JWT token
         String token = jwtUtil.generateToken(user);
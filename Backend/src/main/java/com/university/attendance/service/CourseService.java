@@ -5,16 +5,27 @@ import com.university.attendance.entity.*;
 import com.university.attendance.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 @Service
 public class CourseService {
 
+    private static final int INSERT_CHUNK_SIZE = 1000;
+
     @Autowired
     private CourseRepository courseRepository;
 
@@ -24,6 +35,15 @@ public class CourseService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private EnrollmentCache enrollmentCache;
+
+    @Autowired
+    private ActivityFeed activityFeed;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     public CourseResponse createCourse(CreateCourseRequest request) {
         // Check if course code already exists
         if (courseRepository.existsByCode(request.getCode())) {
@@ -48,7 +68,6 @@ public class CourseService {
         );
     }
 
-    @Transactional
     public AssignCourseResponse assignCourse(Long courseId, AssignCourseRequest request, Long assignedByUserId) {
         // Verify course exists
         Optional<Course> courseOpt = courseRepository.findById(courseId);
@@ -58,49 +77,50 @@ public class CourseService {
 
         List<String> successfulAssignments = new ArrayList<>();
         List<String> failedAssignments = new ArrayList<>();
+        Map<Long, String> toEnroll = new LinkedHashMap<>();
 
-        for (String username : request.getUsernames()) {
-            try {
-                // Find user by username
-                Optional<User> userOpt = userRepository.findByUsername(username);
-                if (userOpt.isEmpty()) {
-                    failedAssignments.add(username + " (user not found)");
-                    continue;
-                }
-
-                User user = userOpt.get();
+        // Resolve every username and the existing enrollments up front (usernames compare case-insensitively, like MySQL)
+        Map<String, User> usersByUsername = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        List<String> usernames = request.getUsernames().stream().filter(Objects::nonNull).distinct().toList();
+        if (!usernames.isEmpty()) {
+            userRepository.findByUsernameIn(usernames).forEach(user -> usersByUsername.put(user.getUsername(), user));
+        }
+        Set<Long> alreadyEnrolled = new HashSet<>(enrollmentRepository.findUserIdsByCourseId(courseId));
 
-                // Check if user is already enrolled in this course
-                if (enrollmentRepository.existsByUserIdAndCourseId(user.getUserID(), courseId)) {
-                    failedAssignments.add(username + " (already enrolled)");
-                    continue;
-                }
+        for (String username : request.getUsernames()) {
+            User user = username != null ? usersByUsername.get(username) : null;
+            if (user == null) {
+                failedAssignments.add(username + " (user not found)");
+                continue;
+            }
 
-                // Validate role assignment
-                if (request.getRole() == EnrollmentRole.TEACHER && user.getRole() != UserRole.TEACHER) {
-                    failedAssignments.add(username + " (not a teacher)");
-                    continue;
-                }
+            // Check if user is already enrolled in this course (including earlier in this request)
+            if (alreadyEnrolled.contains(user.getUserID())) {
+                failedAssignments.add(username + " (already enrolled)");
+                continue;
+            }
 
-                if (request.getRole() == EnrollmentRole.STUDENT && user.getRole() != UserRole.STUDENT) {
-                    failedAssignments.add(username + " (not a student)");
-                    continue;
-                }
+            // Validate role assignment
+            if (request.getRole() == EnrollmentRole.TEACHER && user.getRole() != UserRole.TEACHER) {
+                failedAssignments.add(username + " (not a teacher)");
+                continue;
+            }
 
-                // Create enrollment
-                Enrollment enrollment = new Enrollment(
-                    user.getUserID(),
-                    courseId,
-                    assignedByUserId,
-                    request.getRole()
-                );
+            if (request.getRole() == EnrollmentRole.STUDENT && user.getRole() != UserRole.STUDENT) {
+                failedAssignments.add(username + " (not a student)");
+                continue;
+            }
 
-                enrollmentRepository.save(enrollment);
-                successfulAssignments.add(username);
+            alreadyEnrolled.add(user.getUserID());
+            toEnroll.put(user.getUserID(), username);
+        }
+        List<Long> enrolledUserIds = insertEnrollments(toEnroll, courseId, assignedByUserId, request.getRole(),
+            successfulAssignments, failedAssignments);
 
-            } catch (Exception e) {
-                failedAssignments.add(username + " (error: " + e.getMessage() + ")");
-            }
+        enrollmentCache.invalidate(enrolledUserIds);
+        if (!enrolledUserIds.isEmpty()) {
+            String target = request.getRole() == EnrollmentRole.TEACHER ? "teacher(s)" : "student(s)";
+            activityFeed.courseAssigned(courseOpt.get().getCode(), courseOpt.get().getTitle(), enrolledUserIds.size(), target);
         }
 
         String message = String.format("Assignment completed. %d successful, %d failed.", 
@@ -109,7 +129,6 @@ public class CourseService {
         return new AssignCourseResponse(message, successfulAssignments.size(), successfulAssignments, failedAssignments);
     }
 
-    @Transactional
     public AssignCourseResponse assignCourseToBatch(Long courseId, String batch, Long assignedByUserId) {
         // Verify course exists
         Optional<Course> courseOpt = courseRepository.findById(courseId);
@@ -126,35 +145,93 @@ public class CourseService {
 
         List<String> successfulAssignments = new ArrayList<>();
         List<String> failedAssignments = new ArrayList<>();
+        Map<Long, String> toEnroll = new LinkedHashMap<>();
 
+        // One query for the existing enrollments, then a set difference in memory
+        Set<Long> alreadyEnrolled = new HashSet<>(enrollmentRepository.findUserIdsByCourseId(courseId));
         for (User student : studentsInBatch) {
-            try {
-                // Check if student is already enrolled in this course
-                if (enrollmentRepository.existsByUserIdAndCourseId(student.getUserID(), courseId)) {
-                    failedAssignments.add(student.getUsername() + " (already enrolled)");
-                    continue;
-                }
+            if (alreadyEnrolled.contains(student.getUserID())) {
+                failedAssignments.add(student.getUsername() + " (already enrolled)");
+            } else {
+                toEnroll.put(student.getUserID(), student.getUsername());
+            }
+        }
+        List<Long> enrolledUserIds = insertEnrollments(toEnroll, courseId, assignedByUserId, EnrollmentRole.STUDENT,
+            successfulAssignments, failedAssignments);
+
+        enrollmentCache.invalidate(enrolledUserIds);
+        if (!enrolledUserIds.isEmpty()) {
+            activityFeed.courseAssigned(courseOpt.get().getCode(), courseOpt.get().getTitle(), enrolledUserIds.size(),
+                "student(s) of batch " + batch);
+        }
 
-                // Create enrollment for student
-                Enrollment enrollment = new Enrollment(
-                    student.getUserID(),
-                    courseId,
-                    assignedByUserId,
-                    EnrollmentRole.STUDENT
-                );
+        String message = String.format("Batch assignment completed for batch %s. %d students enrolled, %d failed.", 
+                                     batch, successfulAssignments.size(), failedAssignments.size());
 
-                enrollmentRepository.save(enrollment);
-                successfulAssignments.add(student.getUsername());
+        return new AssignCourseResponse(message, successfulAssignments.size(), successfulAssignments, failedAssignments);
+    }
 
+    /**
+     * Enroll the given users (user id -> username as reported) in chunks, so the IN list stays a reasonable
+     * size for very large batches. Each chunk commits on its own, and callers run no transaction around
+     * it, so only the chunk being inserted holds a connection; a failing chunk or a user the insert
+     * skipped is reported per username in failed, the rest in successful.
+     * @return ids of the users that were enrolled
+     */
+    private List<Long> insertEnrollments(Map<Long, String> users, Long courseId, Long assignedByUserId, EnrollmentRole role,
+                                         List<String> successful, List<String> failed) {
+        TransactionTemplate chunkTransaction = new TransactionTemplate(transactionManager);
+        chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        List<Long> userIds = new ArrayList<>(users.keySet());
+        List<Long> enrolledUserIds = new ArrayList<>();
+        for (int from = 0; from < userIds.size(); from += INSERT_CHUNK_SIZE) {
+            List<Long> chunk = userIds.subList(from, Math.min(from + INSERT_CHUNK_SIZE, userIds.size()));
+            Map<Long, String> notEnrolled;
+            try {
+                notEnrolled = chunkTransaction.execute(status -> insertChunk(chunk, courseId, assignedByUserId, role));
             } catch (Exception e) {
-                failedAssignments.add(student.getUsername() + " (error: " + e.getMessage() + ")");
+                notEnrolled = new HashMap<>();
+                for (Long userId : chunk) {
+                    notEnrolled.put(userId, "error: " + e.getMessage());
+                }
+            }
+            for (Long userId : chunk) {
+                String reason = notEnrolled.get(userId);
+                if (reason != null) {
+                    failed.add(users.get(userId) + " (" + reason + ")");
+                } else {
+                    successful.add(users.get(userId));
+                    enrolledUserIds.add(userId);
+                }
             }
         }
+        return enrolledUserIds;
+    }
 
-        String message = String.format("Batch assignment completed for batch %s. %d students enrolled, %d failed.", 
-                                     batch, successfulAssignments.size(), failedAssignments.size());
+    // Users of the chunk that were not enrolled by this insert, with the reason
+    private Map<Long, String> insertChunk(List<Long> chunk, Long courseId, Long assignedByUserId, EnrollmentRole role) {
+        Map<Long, String> notEnrolled = new HashMap<>();
+        // Enrolled by a concurrent request since the caller looked
+        for (Long userId : enrollmentRepository.findUserIdsByCourseIdAndUserIdIn(courseId, chunk)) {
+            notEnrolled.put(userId, "already enrolled");
+        }
+        List<Long> pending = chunk.stream().filter(userId -> !notEnrolled.containsKey(userId)).toList();
+        if (pending.isEmpty()) {
+            return notEnrolled;
+        }
 
-        return new AssignCourseResponse(message, successfulAssignments.size(), successfulAssignments, failedAssignments);
+        int inserted = enrollmentRepository.insertEnrollments(pending, courseId, assignedByUserId, role.name());
+        if (inserted < pending.size()) {
+            // INSERT IGNORE skipped some rows (e.g. the user was deleted meanwhile); find out which
+            Set<Long> enrolled = new HashSet<>(enrollmentRepository.findUserIdsByCourseIdAndUserIdIn(courseId, pending));
+            for (Long userId : pending) {
+                if (!enrolled.contains(userId)) {
+                    notEnrolled.put(userId, "error: enrollment was not created");
+                }
+            }
+        }
+        return notEnrolled;
     }
 
     public List<CourseResponse> getEnrolledCourses(Long userId, EnrollmentRole role) {
@@ -0,0 +1,125 @@
+package com.university.attendance.service;
+
+import com.university.attendance.entity.EnrollmentRole;
+import com.university.attendance.repository.EnrollmentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Read-through cache of user ID → enrolled course codes, per enrollment role.
+ *
+ * Enrollments only change through CourseService, which calls invalidate with exactly the users it
+ * enrolled; the entries are dropped once that transaction commits, so a reader can never re-cache
+ * the pre-commit state. Hit and miss counts are exposed through stats.
+ */
+@Component
+public class EnrollmentCache {
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Value("${attendance.enrollment-cache.max-size:20000}")
+    private int maxSize;
+
+    private final Map<Long, List<String>> studentCourses = new ConcurrentHashMap<>();
+    private final Map<Long, List<String>> teacherCourses = new ConcurrentHashMap<>();
+
+    /** Bumped on every invalidation; a load that overlapped one is returned but not cached. */
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public List<String> getStudentCourseCodes(Long studentId) {
+        return get(studentCourses, studentId, EnrollmentRole.STUDENT);
+    }
+
+    public List<String> getTeacherCourseCodes(Long teacherId) {
+        return get(teacherCourses, teacherId, EnrollmentRole.TEACHER);
+    }
+
+    /**
+     * Forget the enrollments of the given users, after the current transaction commits if there is one.
+     */
+    public void invalidate(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        Set<Long> users = Set.copyOf(userIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Drop now so this transaction sees its own changes, and again once they are visible to everyone
+            evict(users);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(users);
+                }
+            });
+        } else {
+            evict(users);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", hitCount + missCount > 0 ? (double) hitCount / (hitCount + missCount) : 0.0);
+        stats.put("students", studentCourses.size());
+        stats.put("teachers", teacherCourses.size());
+        return stats;
+    }
+
+    private List<String> get(Map<Long, List<String>> cache, Long userId, EnrollmentRole role) {
+        List<String> courses = cache.get(userId);
+        if (courses != null) {
+            hits.increment();
+            return courses;
+        }
+        misses.increment();
+
+        long invalidationsBeforeLoad = invalidations.get();
+        courses = List.copyOf(role == EnrollmentRole.TEACHER
+            ? enrollmentRepository.findCourseCodesByTeacherId(userId)
+            : enrollmentRepository.findCourseCodesByStudentId(userId));
+        if (invalidations.get() == invalidationsBeforeLoad) {
+            if (cache.size() >= maxSize) {
+                evictArbitrary(cache);
+            }
+            cache.put(userId, courses);
+        }
+        return courses;
+    }
+
+    private void evict(Set<Long> users) {
+        invalidations.incrementAndGet();
+        users.forEach(userId -> {
+            studentCourses.remove(userId);
+            teacherCourses.remove(userId);
+        });
+    }
+
+    // Entries are cheap to reload, so just make room
+    private void evictArbitrary(Map<Long, List<String>> cache) {
+        Iterator<Long> users = cache.keySet().iterator();
+        while (cache.size() >= maxSize && users.hasNext()) {
+            users.next();
+            users.remove();
+        }
+    }
+}
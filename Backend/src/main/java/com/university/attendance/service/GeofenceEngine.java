@@ -0,0 +1,132 @@
+package com.university.attendance.service;
+
+import com.university.attendance.dto.LocationVerificationResponse;
+import org.springframework.stereotype.Component;
+
+/**
+ * Decides whether a student's coordinates are close enough to a session's reference point.
+ *
+ * A ReferencePoint precomputes everything that depends only on the classroom location, so a check
+ * is a bounding-box comparison and, for points inside the box, one haversine evaluation.
+ */
+@Component
+public class GeofenceEngine {
+
+    public static final double ALLOWED_RADIUS_METERS = 100.0;
+    // Beyond the allowed radius but within this distance the check passes with a GPS accuracy warning
+    public static final double TOLERANCE_RADIUS_METERS = 500.0;
+
+    private static final double EARTH_RADIUS_METERS = 6_371_000.0;
+    private static final double METERS_PER_DEGREE = EARTH_RADIUS_METERS * Math.PI / 180.0;
+
+    /**
+     * Verify a student position against a reference point.
+     */
+    public LocationVerificationResponse verify(ReferencePoint reference, String locationName,
+                                               double latitude, double longitude) {
+        boolean verified;
+        String message;
+        double distance;
+
+        if (reference.isOutsideTolerance(latitude, longitude)) {
+            // Cheap reject: the equirectangular estimate is only used for the message
+            distance = reference.approximateDistanceMeters(latitude, longitude);
+            verified = false;
+            message = String.format("You are too far from the classroom (%.1f meters away). Please move closer.", distance);
+        } else {
+            distance = reference.distanceMeters(latitude, longitude);
+            if (distance <= ALLOWED_RADIUS_METERS) {
+                verified = true;
+                message = String.format("Location verified! You are %.1f meters from the classroom.", distance);
+            } else if (distance <= TOLERANCE_RADIUS_METERS) {
+                verified = true;
+                message = String.format("Location verified with GPS tolerance! Distance: %.1f meters (GPS accuracy may vary).", distance);
+            } else {
+                verified = false;
+                message = String.format("You are too far from the classroom (%.1f meters away). Please move closer.", distance);
+            }
+        }
+
+        LocationVerificationResponse response =
+            new LocationVerificationResponse(verified, message, distance, ALLOWED_RADIUS_METERS);
+        response.setTeacherLocation(new LocationVerificationResponse.TeacherLocation(
+            reference.getLatitude(), reference.getLongitude(), locationName));
+        return response;
+    }
+
+    /**
+     * Great-circle distance in meters (haversine).
+     */
+    public static double haversineMeters(double lat1, double lon1, double lat2, double lon2) {
+        double lat1Rad = Math.toRadians(lat1);
+        double lat2Rad = Math.toRadians(lat2);
+        return haversineRadians(lat1Rad, Math.cos(lat1Rad), lat2Rad, Math.toRadians(lon2 - lon1));
+    }
+
+    private static double haversineRadians(double lat1Rad, double cosLat1, double lat2Rad, double deltaLonRad) {
+        double sinHalfDeltaLat = Math.sin((lat2Rad - lat1Rad) / 2);
+        double sinHalfDeltaLon = Math.sin(deltaLonRad / 2);
+        double a = sinHalfDeltaLat * sinHalfDeltaLat +
+                   cosLat1 * Math.cos(lat2Rad) * sinHalfDeltaLon * sinHalfDeltaLon;
+        return 2 * EARTH_RADIUS_METERS * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+
+    /**
+     * Immutable classroom location with the per-point terms of the distance computations precomputed.
+     */
+    public static final class ReferencePoint {
+        private final double latitude;
+        private final double longitude;
+        private final double latitudeRad;
+        private final double cosLatitude;
+        // Half-widths, in degrees, of the box that encloses the tolerance radius
+        private final double latitudeSpan;
+        private final double longitudeSpan;
+
+        private ReferencePoint(double latitude, double longitude) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.latitudeRad = Math.toRadians(latitude);
+            this.cosLatitude = Math.cos(latitudeRad);
+            this.latitudeSpan = TOLERANCE_RADIUS_METERS / METERS_PER_DEGREE;
+            // Near the poles the box degenerates; never reject on longitude there
+            this.longitudeSpan = cosLatitude > 1e-6
+                ? TOLERANCE_RADIUS_METERS / (METERS_PER_DEGREE * cosLatitude)
+                : 360.0;
+        }
+
+        public static ReferencePoint of(double latitude, double longitude) {
+            return new ReferencePoint(latitude, longitude);
+        }
+
+        public double getLatitude() { return latitude; }
+        public double getLongitude() { return longitude; }
+
+        /**
+         * True if the point certainly lies farther away than the tolerance radius.
+         */
+        public boolean isOutsideTolerance(double lat, double lon) {
+            return Math.abs(lat - latitude) > latitudeSpan || Math.abs(wrapLongitude(lon - longitude)) > longitudeSpan;
+        }
+
+        public double distanceMeters(double lat, double lon) {
+            return haversineRadians(latitudeRad, cosLatitude, Math.toRadians(lat), Math.toRadians(lon - longitude));
+        }
+
+        public double approximateDistanceMeters(double lat, double lon) {
+            double dy = (lat - latitude) * METERS_PER_DEGREE;
+            double dx = wrapLongitude(lon - longitude) * METERS_PER_DEGREE * cosLatitude;
+            return Math.sqrt(dx * dx + dy * dy);
+        }
+
+        private static double wrapLongitude(double deltaDegrees) {
+            if (deltaDegrees > 180.0) {
+                return deltaDegrees - 360.0;
+            }
+            if (deltaDegrees < -180.0) {
+                return deltaDegrees + 360.0;
+            }
+            return deltaDegrees;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.university.attendance.service;
+
+import com.university.attendance.dto.RoutineResponse;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Interval index over routine slots (day, courseTime–endTime), per teacher and per student batch.
+ *
+ * Each (owner, day) keeps its slots sorted by start time together with a running maximum of their
+ * end times, so "does [start, end) overlap anything?" is a binary search for the slots that start
+ * before end plus one look at the latest end among them. Slots that only touch (10:00–11:00 after
+ * 09:00–10:00) do not overlap. Batches and days are matched like MySQL compared them (see matchKey).
+ * The index is immutable; TimetableCache builds one per snapshot.
+ */
+public final class RoutineConflictIndex {
+
+    public enum Scope { TEACHER, BATCH }
+
+    private static final Comparator<RoutineResponse> BY_START = Comparator
+        .comparing(RoutineResponse::getCourseTime)
+        .thenComparing(RoutineResponse::getEndTime)
+        .thenComparing(RoutineResponse::getRoutineId);
+
+    private final Map<SlotKey, DaySlots> slots;
+
+    private RoutineConflictIndex(Map<SlotKey, DaySlots> slots) {
+        this.slots = slots;
+    }
+
+    /**
+     * Batch or day as a lookup key: trimmed and lower-cased, since the database compared them
+     * case-insensitively and ignoring trailing spaces.
+     */
+    public static String matchKey(String value) {
+        return value == null ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public static RoutineConflictIndex build(Collection<RoutineResponse> routines) {
+        Map<SlotKey, List<RoutineResponse>> grouped = new HashMap<>();
+        for (RoutineResponse routine : routines) {
+            grouped.computeIfAbsent(SlotKey.teacher(routine.getTeacherId(), routine.getDay()), key -> new ArrayList<>()).add(routine);
+            grouped.computeIfAbsent(SlotKey.batch(routine.getStudentBatch(), routine.getDay()), key -> new ArrayList<>()).add(routine);
+        }
+        Map<SlotKey, DaySlots> slots = new HashMap<>();
+        grouped.forEach((key, daySlots) -> slots.put(key, new DaySlots(daySlots)));
+        return new RoutineConflictIndex(Map.copyOf(slots));
+    }
+
+    /**
+     * The first existing slot of the teacher, then of the batch, that overlaps [start, end) on the given day.
+     */
+    public Optional<RoutineConflict> findOverlap(Long teacherId, String batch, String day, LocalTime start, LocalTime end) {
+        RoutineResponse clash = overlapping(SlotKey.teacher(teacherId, day), start, end);
+        if (clash != null) {
+            return Optional.of(new RoutineConflict(Scope.TEACHER, clash.getTeacherUsername(), clash, null));
+        }
+        clash = overlapping(SlotKey.batch(batch, day), start, end);
+        if (clash != null) {
+            return Optional.of(new RoutineConflict(Scope.BATCH, batch, clash, null));
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Every pair of overlapping slots, found with one sweep over each (owner, day).
+     */
+    public List<RoutineConflict> allConflicts() {
+        List<RoutineConflict> conflicts = new ArrayList<>();
+        slots.forEach((key, daySlots) -> {
+            List<RoutineResponse> open = new ArrayList<>();
+            for (RoutineResponse routine : daySlots.sorted) {
+                open.removeIf(earlier -> !earlier.getEndTime().isAfter(routine.getCourseTime()));
+                for (RoutineResponse earlier : open) {
+                    String owner = key.scope == Scope.TEACHER ? routine.getTeacherUsername() : routine.getStudentBatch();
+                    conflicts.add(new RoutineConflict(key.scope, owner, earlier, routine));
+                }
+                open.add(routine);
+            }
+        });
+        conflicts.sort(Comparator
+            .comparing((RoutineConflict conflict) -> conflict.getScope())
+            .thenComparing(conflict -> TimetableCache.dayOrder(conflict.getRoutine().getDay()))
+            .thenComparing(conflict -> conflict.getRoutine().getCourseTime()));
+        return conflicts;
+    }
+
+    private RoutineResponse overlapping(SlotKey key, LocalTime start, LocalTime end) {
+        DaySlots daySlots = slots.get(key);
+        return daySlots != null ? daySlots.overlapping(start, end) : null;
+    }
+
+    /**
+     * Slots of one owner on one day, sorted by start, with the running maximum end time.
+     */
+    private static final class DaySlots {
+        private final List<RoutineResponse> sorted;
+        /** Index of the slot with the latest end among sorted[0..i]. */
+        private final int[] latestEnding;
+
+        private DaySlots(List<RoutineResponse> routines) {
+            List<RoutineResponse> sorted = new ArrayList<>(routines);
+            sorted.sort(BY_START);
+            this.sorted = List.copyOf(sorted);
+            this.latestEnding = new int[sorted.size()];
+            for (int i = 0; i < sorted.size(); i++) {
+                boolean endsLater = i == 0 || sorted.get(i).getEndTime().isAfter(sorted.get(latestEnding[i - 1]).getEndTime());
+                latestEnding[i] = endsLater ? i : latestEnding[i - 1];
+            }
+        }
+
+        private RoutineResponse overlapping(LocalTime start, LocalTime end) {
+            // Number of slots that start before end
+            int low = 0;
+            int high = sorted.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (sorted.get(mid).getCourseTime().isBefore(end)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            if (low == 0) {
+                return null;
+            }
+            RoutineResponse latest = sorted.get(latestEnding[low - 1]);
+            return latest.getEndTime().isAfter(start) ? latest : null;
+        }
+    }
+
+    private record SlotKey(Scope scope, Object owner, String day) {
+        static SlotKey teacher(Long teacherId, String day) {
+            return new SlotKey(Scope.TEACHER, teacherId, matchKey(day));
+        }
+
+        static SlotKey batch(String batch, String day) {
+            return new SlotKey(Scope.BATCH, matchKey(batch), matchKey(day));
+        }
+    }
+
+    /**
+     * Two slots of the same teacher or batch that overlap. For findOverlap, other is null and routine is the existing slot.
+     */
+    public static final class RoutineConflict {
+        private final Scope scope;
+        private final String owner;
+        private final RoutineResponse routine;
+        private final RoutineResponse other;
+
+        private RoutineConflict(Scope scope, String owner, RoutineResponse routine, RoutineResponse other) {
+            this.scope = scope;
+            this.owner = owner;
+            this.routine = routine;
+            this.other = other;
+        }
+
+        public Scope getScope() { return scope; }
+        public String getOwner() { return owner; }
+        public RoutineResponse getRoutine() { return routine; }
+        public RoutineResponse getOther() { return other; }
+
+        public String getDescription() {
+            String subject = scope == Scope.TEACHER ? "teacher '" + owner + "'" : "batch '" + owner + "'";
+            String description = "Overlaps " + routine.getCourseCode() + " on " + routine.getDay() + " "
+                + routine.getCourseTime() + "-" + routine.getEndTime() + " for " + subject;
+            if (other != null) {
+                description += " with " + other.getCourseCode() + " " + other.getCourseTime() + "-" + other.getEndTime();
+            }
+            return description;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.university.attendance.service;
+
+import com.university.attendance.entity.ClassSession;
+import com.university.attendance.entity.SessionStatus;
+import com.university.attendance.repository.ClassSessionRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ends sessions when their expiry time passes, so ACTIVE rows do not outlive their window.
+ *
+ * AttendanceService reports every lifecycle change through track; running sessions are put on a
+ * SessionExpiryWheel and a single thread advances it every tick-ms, handing due sessions back to
+ * AttendanceService.expireSession. On startup all running sessions are loaded from the database, so
+ * sessions that expired while the backend was down are ended on the first tick.
+ */
+@Component
+public class SessionExpiryScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionExpiryScheduler.class);
+
+    @Autowired
+    @Lazy
+    private AttendanceService attendanceService;
+
+    @Autowired
+    private ClassSessionRepository classSessionRepository;
+
+    @Value("${attendance.expiry.tick-ms:1000}")
+    private long tickMs;
+
+    @Value("${attendance.expiry.wheel-size:512}")
+    private int wheelSize;
+
+    @Value("${attendance.expiry.retry-delay-seconds:30}")
+    private long retryDelaySeconds;
+
+    private SessionExpiryWheel wheel;
+
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "session-expiry");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    public void start() {
+        wheel = new SessionExpiryWheel(tickMs, wheelSize, Instant.now());
+        ticker.scheduleAtFixedRate(this::tick, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        ticker.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void scheduleOpenSessions() {
+        List<ClassSession> running = classSessionRepository.findByStatusAndIsActiveTrue(SessionStatus.ACTIVE);
+        running.forEach(this::track);
+        logger.info("Scheduled expiry of {} running sessions", running.size());
+    }
+
+    /**
+     * Schedule, move or cancel the expiry of a session after it changed.
+     * Only running sessions (ACTIVE and not paused) with an expiry time are scheduled. A code generated
+     * on page load is scheduled at its placeholder expiry, so it is ended if the teacher never starts it;
+     * startAttendance reopens it if they do so afterwards.
+     */
+    public void track(ClassSession session) {
+        if (session == null || session.getSessionID() == null) {
+            return;
+        }
+        if (SessionStatus.ACTIVE.equals(session.getStatus())
+                && Boolean.TRUE.equals(session.getIsActive())
+                && session.getExpiryTime() != null) {
+            wheel.schedule(session.getSessionID(), session.getExpiryTime());
+        } else {
+            wheel.cancel(session.getSessionID());
+        }
+    }
+
+    public int scheduledCount() {
+        return wheel.size();
+    }
+
+    private void tick() {
+        List<Long> expired;
+        try {
+            expired = wheel.advance(Instant.now());
+        } catch (Exception e) {
+            logger.error("Session expiry tick failed", e);
+            return;
+        }
+        for (Long sessionId : expired) {
+            try {
+                if (attendanceService.expireSession(sessionId)) {
+                    logger.debug("Session {} expired", sessionId);
+                }
+            } catch (Exception e) {
+                logger.warn("Could not end expired session {}, retrying in {} s", sessionId, retryDelaySeconds, e);
+                wheel.schedule(sessionId, Instant.now().plusSeconds(retryDelaySeconds));
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.university.attendance.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Hashed timing wheel of session deadlines.
+ *
+ * A session is hashed into the slot of its deadline tick, so scheduling, rescheduling and cancelling
+ * are O(1) and each tick only looks at one slot instead of every open session. Deadlines further away
+ * than one rotation simply stay in their slot until the round they are due in. Only the latest
+ * deadline of a session counts; stale slot entries are dropped when their slot comes round.
+ *
+ * advance is meant to be called from a single ticking thread; schedule and cancel may be called from any thread.
+ */
+public class SessionExpiryWheel {
+
+    private final long tickMs;
+    private final Set<Long>[] slots;
+    private final Map<Long, Long> deadlines = new ConcurrentHashMap<>();
+    /** Sessions whose slot the ticking thread may already have passed. */
+    private final Queue<Long> overdue = new ConcurrentLinkedQueue<>();
+    private volatile long lastTick;
+
+    @SuppressWarnings("unchecked")
+    public SessionExpiryWheel(long tickMs, int slotCount, Instant start) {
+        this.tickMs = tickMs;
+        this.slots = new Set[slotCount];
+        for (int i = 0; i < slotCount; i++) {
+            slots[i] = ConcurrentHashMap.newKeySet();
+        }
+        this.lastTick = start.toEpochMilli() / tickMs;
+    }
+
+    /**
+     * Schedule (or move) the expiry of a session.
+     */
+    public void schedule(Long sessionId, Instant deadline) {
+        long deadlineMs = deadline.toEpochMilli();
+        deadlines.put(sessionId, deadlineMs);
+        long deadlineTick = deadlineMs / tickMs;
+        // Leave a tick of slack so a concurrent advance cannot pass the slot right after we picked it
+        if (deadlineTick <= lastTick + 1) {
+            overdue.add(sessionId);
+        } else {
+            slotOf(deadlineTick).add(sessionId);
+        }
+    }
+
+    public void cancel(Long sessionId) {
+        deadlines.remove(sessionId);
+    }
+
+    public boolean isScheduled(Long sessionId) {
+        return deadlines.containsKey(sessionId);
+    }
+
+    public int size() {
+        return deadlines.size();
+    }
+
+    /**
+     * Move the wheel forward to now.
+     * @return the sessions whose deadline has passed; they are no longer scheduled
+     */
+    public List<Long> advance(Instant now) {
+        long nowMs = now.toEpochMilli();
+        long targetTick = nowMs / tickMs;
+        List<Long> expired = new ArrayList<>();
+
+        // After a long stall one pass over every slot is enough, since entries are checked against their deadline
+        long firstTick = Math.max(lastTick + 1, targetTick - slots.length + 1);
+        for (long tick = firstTick; tick <= targetTick; tick++) {
+            int slotIndex = slotIndex(tick);
+            Iterator<Long> entries = slots[slotIndex].iterator();
+            while (entries.hasNext()) {
+                Long sessionId = entries.next();
+                Long deadlineMs = deadlines.get(sessionId);
+                if (deadlineMs == null || slotIndex(deadlineMs / tickMs) != slotIndex) {
+                    // Cancelled or rescheduled into another slot
+                    entries.remove();
+                } else if (deadlineMs <= nowMs) {
+                    entries.remove();
+                    if (deadlines.remove(sessionId, deadlineMs)) {
+                        expired.add(sessionId);
+                    }
+                }
+            }
+        }
+        if (targetTick > lastTick) {
+            lastTick = targetTick;
+        }
+
+        List<Long> notYetDue = new ArrayList<>();
+        Long sessionId;
+        while ((sessionId = overdue.poll()) != null) {
+            Long deadlineMs = deadlines.get(sessionId);
+            if (deadlineMs == null || deadlineMs / tickMs > lastTick + 1) {
+                // Cancelled, or rescheduled far enough ahead to sit in its own slot
+                continue;
+            }
+            if (deadlineMs > nowMs) {
+                // Due within the next tick or two; keep checking it here rather than in a slot
+                notYetDue.add(sessionId);
+            } else if (deadlines.remove(sessionId, deadlineMs)) {
+                expired.add(sessionId);
+            }
+        }
+        overdue.addAll(notYetDue);
+        return expired;
+    }
+
+    private Set<Long> slotOf(long tick) {
+        return slots[slotIndex(tick)];
+    }
+
+    private int slotIndex(long tick) {
+        return (int) Math.floorMod(tick, (long) slots.length);
+    }
+}
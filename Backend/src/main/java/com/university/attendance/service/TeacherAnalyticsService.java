@@ -0,0 +1,130 @@
+package com.university.attendance.service;
+
+import com.university.attendance.dto.ClassAttendanceSummary;
+import com.university.attendance.dto.StudentAttendanceCount;
+import com.university.attendance.entity.Student;
+import com.university.attendance.entity.User;
+import com.university.attendance.repository.AttendanceDailyRollupRepository;
+import com.university.attendance.repository.AttendanceRepository;
+import com.university.attendance.repository.AttendanceSummaryRepository;
+import com.university.attendance.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Attendance analytics over a teacher's courses, aggregated in the database.
+ *
+ * Classes are (course, day) pairs read from the attendance_daily_rollup buckets, in the same server
+ * time zone the dashboards always grouped by; per-student counts are one GROUP BY over the
+ * attendance summaries, which include missed sessions, with the names resolved in a single lookup.
+ */
+@Service
+public class TeacherAnalyticsService {
+
+    @Autowired
+    private AttendanceDailyRollupRepository attendanceDailyRollupRepository;
+
+    @Autowired
+    private AttendanceRepository attendanceRepository;
+
+    @Autowired
+    private AttendanceSummaryRepository attendanceSummaryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    /**
+     * Classes of the given courses from..to inclusive, newest day first.
+     */
+    public List<ClassAttendanceSummary> getClasses(Collection<String> courseCodes, LocalDate from, LocalDate to) {
+        if (courseCodes.isEmpty()) {
+            return List.of();
+        }
+        List<ClassAttendanceSummary> classes = new ArrayList<>();
+        for (Object[] row : attendanceDailyRollupRepository.sumByDayAndCourse(courseCodes, from, to)) {
+            classes.add(new ClassAttendanceSummary((String) row[1], (LocalDate) row[0],
+                ((Number) row[2]).longValue(), ((Number) row[3]).longValue(), ((Number) row[4]).longValue()));
+        }
+        return classes;
+    }
+
+    public List<ClassAttendanceSummary> getClasses(Collection<String> courseCodes) {
+        return getClasses(courseCodes, LocalDate.EPOCH, LocalDate.now());
+    }
+
+    /**
+     * The latest limit of the given classes (newest day first, as getClasses returns them),
+     * ordered by the time of their first mark, newest first.
+     */
+    public List<ClassAttendanceSummary> getRecentClasses(List<ClassAttendanceSummary> classes, int limit) {
+        List<ClassAttendanceSummary> candidates = new ArrayList<>();
+        LocalDate lastDay = null;
+        // Whole days only, so classes on the boundary day are compared by their first mark as well
+        for (ClassAttendanceSummary classDay : classes) {
+            if (candidates.size() >= limit && !classDay.getDay().equals(lastDay)) {
+                break;
+            }
+            candidates.add(classDay);
+            lastDay = classDay.getDay();
+        }
+
+        Map<LocalDate, List<ClassAttendanceSummary>> byDay = new HashMap<>();
+        candidates.forEach(classDay -> byDay.computeIfAbsent(classDay.getDay(), day -> new ArrayList<>()).add(classDay));
+        byDay.forEach((day, dayClasses) -> {
+            Instant from = day.atStartOfDay(ZoneId.systemDefault()).toInstant();
+            Instant to = day.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant();
+            Map<String, Instant> firstMarks = new HashMap<>();
+            List<String> codes = dayClasses.stream().map(ClassAttendanceSummary::getCourseCode).toList();
+            for (Object[] row : attendanceRepository.findFirstTimestampByCourse(codes, from, to)) {
+                firstMarks.put((String) row[0], (Instant) row[1]);
+            }
+            // Fall back to the start of the day if the attendance rows are gone
+            dayClasses.forEach(classDay ->
+                classDay.setFirstMarkedAt(firstMarks.getOrDefault(classDay.getCourseCode(), from)));
+        });
+
+        return candidates.stream()
+            .sorted(Comparator.comparing(ClassAttendanceSummary::getFirstMarkedAt).reversed())
+            .limit(limit)
+            .toList();
+    }
+
+    /**
+     * Attendance of every student with marked or missed sessions in the given courses. Students without a user row are left out.
+     */
+    public List<StudentAttendanceCount> getStudents(Collection<String> courseCodes) {
+        if (courseCodes.isEmpty()) {
+            return List.of();
+        }
+        List<Object[]> counts = attendanceSummaryRepository.countByStudentForCourses(courseCodes);
+        List<Long> studentIds = counts.stream().map(row -> (Long) row[0]).toList();
+        Map<Long, User> users = new HashMap<>();
+        if (!studentIds.isEmpty()) {
+            userRepository.findAllById(studentIds).forEach(user -> users.put(user.getUserID(), user));
+        }
+
+        List<StudentAttendanceCount> students = new ArrayList<>(counts.size());
+        for (Object[] row : counts) {
+            User user = users.get((Long) row[0]);
+            if (user != null) {
+                students.add(new StudentAttendanceCount(user.getUserID(), user.getName(), user instanceof Student,
+                    ((Number) row[1]).longValue(), ((Number) row[2]).longValue()));
+            }
+        }
+        return students;
+    }
+
+    public long countStudents(Collection<String> courseCodes) {
+        return courseCodes.isEmpty() ? 0 : attendanceSummaryRepository.countDistinctStudentsForCourses(courseCodes);
+    }
+}
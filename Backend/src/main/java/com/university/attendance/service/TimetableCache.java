@@ -0,0 +1,200 @@
+package com.university.attendance.service;
+
+import com.university.attendance.dto.RoutineResponse;
+import com.university.attendance.entity.Routine;
+import com.university.attendance.repository.RoutineRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Immutable weekly timetables per student batch and per teacher, built from the routines table.
+ *
+ * Routines change a few times per semester, so the whole table is read once into a snapshot sorted by
+ * weekday and start time, and every timetable request is served from it. Whoever creates or deletes a
+ * routine, or renames a teacher or course shown in one, calls invalidate; the next reader rebuilds the
+ * snapshot. The snapshot also carries the
+ * RoutineConflictIndex used to reject overlapping routines. Batches and days are looked up
+ * ignoring case and surrounding spaces, as the database queries matched them.
+ */
+@Component
+public class TimetableCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(TimetableCache.class);
+
+    private static final List<String> DAY_ORDER =
+        List.of("Monday", "Tuesday", "Wednesday", "Thursday", "Friday", "Saturday", "Sunday");
+
+    private static final Comparator<RoutineResponse> WEEK_ORDER = Comparator
+        .comparingInt((RoutineResponse routine) -> dayOrder(routine.getDay()))
+        .thenComparing(RoutineResponse::getCourseTime)
+        .thenComparing(RoutineResponse::getRoutineId);
+
+    @Autowired
+    private RoutineRepository routineRepository;
+
+    private volatile Snapshot snapshot;
+    private final AtomicLong version = new AtomicLong();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    public List<RoutineResponse> getBatchTimetable(String batch) {
+        return batch == null ? List.of() : current().byBatch.getOrDefault(RoutineConflictIndex.matchKey(batch), List.of());
+    }
+
+    public List<RoutineResponse> getTeacherTimetable(Long teacherId) {
+        return teacherId == null ? List.of() : current().byTeacher.getOrDefault(teacherId, List.of());
+    }
+
+    public List<RoutineResponse> getBatchTimetable(String batch, String day) {
+        String dayKey = RoutineConflictIndex.matchKey(day);
+        return getBatchTimetable(batch).stream()
+            .filter(routine -> dayKey.equals(RoutineConflictIndex.matchKey(routine.getDay())))
+            .toList();
+    }
+
+    public List<RoutineResponse> getTeacherTimetable(Long teacherId, String day) {
+        String dayKey = RoutineConflictIndex.matchKey(day);
+        return getTeacherTimetable(teacherId).stream()
+            .filter(routine -> dayKey.equals(RoutineConflictIndex.matchKey(routine.getDay())))
+            .toList();
+    }
+
+    /**
+     * An existing slot of the teacher or the batch that overlaps the proposed one, if any.
+     */
+    public Optional<RoutineConflictIndex.RoutineConflict> findOverlap(Long teacherId, String batch, String day,
+                                                                      LocalTime start, LocalTime end) {
+        return current().conflicts.findOverlap(teacherId, batch, day, start, end);
+    }
+
+    /**
+     * All pairs of overlapping routines in the routines table.
+     */
+    public List<RoutineConflictIndex.RoutineConflict> findAllConflicts() {
+        return current().conflicts.allConflicts();
+    }
+
+    /**
+     * Drop the snapshot after routines, or the names shown in them, changed; again after the current
+     * transaction completes if there is one, so a reader cannot rebuild it from uncommitted state.
+     */
+    public void invalidate() {
+        drop();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    drop();
+                }
+            });
+        }
+    }
+
+    private void drop() {
+        version.incrementAndGet();
+        snapshot = null;
+    }
+
+    /**
+     * Position of a day in the week (Monday = 0), or 7 for anything else.
+     */
+    public static int dayOrder(String day) {
+        String dayKey = RoutineConflictIndex.matchKey(day);
+        for (int i = 0; i < DAY_ORDER.size(); i++) {
+            if (DAY_ORDER.get(i).toLowerCase(Locale.ROOT).equals(dayKey)) {
+                return i;
+            }
+        }
+        return DAY_ORDER.size();
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        rebuildLock.lock();
+        try {
+            while (snapshot == null) {
+                long buildVersion = version.get();
+                Snapshot built = build();
+                // A routine changed while we were reading; read again rather than publish stale data
+                if (version.get() == buildVersion) {
+                    snapshot = built;
+                }
+            }
+            return snapshot;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private Snapshot build() {
+        List<Routine> routines = routineRepository.findAllWithDetails();
+        List<RoutineResponse> responses = new ArrayList<>(routines.size());
+        Map<String, List<RoutineResponse>> byBatch = new HashMap<>();
+        Map<Long, List<RoutineResponse>> byTeacher = new HashMap<>();
+        for (Routine routine : routines) {
+            RoutineResponse response = toResponse(routine);
+            responses.add(response);
+            byBatch.computeIfAbsent(RoutineConflictIndex.matchKey(response.getStudentBatch()), batch -> new ArrayList<>()).add(response);
+            byTeacher.computeIfAbsent(response.getTeacherId(), teacher -> new ArrayList<>()).add(response);
+        }
+        logger.debug("Built timetables for {} routines, {} batches, {} teachers",
+            routines.size(), byBatch.size(), byTeacher.size());
+        return new Snapshot(sortedCopy(byBatch), sortedCopy(byTeacher), RoutineConflictIndex.build(responses));
+    }
+
+    private static <K> Map<K, List<RoutineResponse>> sortedCopy(Map<K, List<RoutineResponse>> timetables) {
+        Map<K, List<RoutineResponse>> sorted = new HashMap<>();
+        timetables.forEach((key, routines) -> {
+            routines.sort(WEEK_ORDER);
+            sorted.put(key, List.copyOf(routines));
+        });
+        return Map.copyOf(sorted);
+    }
+
+    private static RoutineResponse toResponse(Routine routine) {
+        return new RoutineResponse(
+            routine.getRoutineID(),
+            routine.getCourse().getId(),
+            routine.getCourse().getCode(),
+            routine.getCourse().getTitle(),
+            routine.getCourseTime(),
+            routine.getEndTime(),
+            routine.getDay(),
+            routine.getTeacher().getUserID(),
+            routine.getTeacher().getName(),
+            routine.getTeacher().getUsername(),
+            routine.getStudentBatch(),
+            routine.getCreatedAt()
+        );
+    }
+
+    private static final class Snapshot {
+        private final Map<String, List<RoutineResponse>> byBatch;
+        private final Map<Long, List<RoutineResponse>> byTeacher;
+        private final RoutineConflictIndex conflicts;
+
+        private Snapshot(Map<String, List<RoutineResponse>> byBatch, Map<Long, List<RoutineResponse>> byTeacher,
+                         RoutineConflictIndex conflicts) {
+            this.byBatch = byBatch;
+            this.byTeacher = byTeacher;
+            this.conflicts = conflicts;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.university.attendance.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ActivityRingBufferTest {
+
+    @Test
+    void returnsNewestFirstAndOverwritesOldest() {
+        ActivityRingBuffer<Integer> buffer = new ActivityRingBuffer<>(3);
+        assertEquals(4, buffer.capacity());
+        assertTrue(buffer.newest(10).isEmpty());
+
+        for (int i = 1; i <= 6; i++) {
+            buffer.add(i);
+        }
+
+        assertEquals(List.of(6, 5, 4, 3), buffer.newest(10));
+        assertEquals(List.of(6, 5), buffer.newest(2));
+    }
+
+    @Test
+    void keepsTheLastItemsOfConcurrentWriters() throws InterruptedException {
+        ActivityRingBuffer<Integer> buffer = new ActivityRingBuffer<>(64);
+        ExecutorService writers = Executors.newFixedThreadPool(8);
+        CountDownLatch done = new CountDownLatch(8);
+        for (int w = 0; w < 8; w++) {
+            int writer = w;
+            writers.execute(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    buffer.add(writer * 1000 + i);
+                }
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        writers.shutdown();
+
+        List<Integer> newest = buffer.newest(100);
+        assertEquals(64, newest.size());
+        assertEquals(64, newest.stream().distinct().count());
+    }
+}
@@ -0,0 +1,21 @@
+package com.university.attendance.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class AttendanceExportServiceTest {
+
+    private static String field(String value) {
+        return AttendanceExportService.appendField(new StringBuilder(), value).toString();
+    }
+
+    @Test
+    void quotesOnlyFieldsThatNeedIt() {
+        assertEquals("CSE-101", field("CSE-101"));
+        assertEquals("", field(null));
+        assertEquals("\"Data Structures, Part 1\"", field("Data Structures, Part 1"));
+        assertEquals("\"The \"\"Lab\"\" Course\"", field("The \"Lab\" Course"));
+        assertEquals("\"two\nlines\"", field("two\nlines"));
+    }
+}
@@ -0,0 +1,89 @@
+package com.university.attendance.service;
+
+import com.university.attendance.entity.Attendance;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AttendanceJournalTest {
+
+    @TempDir
+    Path dir;
+
+    private final AttendanceJournal journal = new AttendanceJournal();
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = dir.resolve("journal/attendance.log");
+        ReflectionTestUtils.setField(journal, "journalPath", file.toString());
+        journal.open();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        journal.close();
+    }
+
+    @Test
+    void readsBackAppendedMarks() throws IOException {
+        journal.append(mark(7L, 42L, "CSE101"));
+        journal.append(mark(7L, 43L, null));
+
+        List<Attendance> pending = journal.readPending();
+
+        assertEquals(2, pending.size());
+        assertEquals(7L, pending.get(0).getSessionID());
+        assertEquals(42L, pending.get(0).getStudentID());
+        assertEquals("CSE101", pending.get(0).getCourseCode());
+        assertEquals(Instant.ofEpochSecond(1_700_000_000L), pending.get(0).getTimestamp());
+        assertNull(pending.get(1).getCourseCode());
+    }
+
+    @Test
+    void skipsAnEntryTornByACrash() throws IOException {
+        journal.append(mark(7L, 42L, "CSE101"));
+        Files.writeString(file, "7\t43\tCSE", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        assertEquals(List.of(42L), journal.readPending().stream().map(Attendance::getStudentID).toList());
+    }
+
+    @Test
+    void clearsOnlyWhenNothingIsUnwritten() throws IOException {
+        journal.append(mark(7L, 42L, "CSE101"));
+
+        journal.clearIf(() -> false);
+        assertEquals(1, journal.readPending().size());
+
+        journal.clearIf(() -> true);
+        assertTrue(journal.readPending().isEmpty());
+
+        journal.append(mark(7L, 43L, "CSE101"));
+        assertEquals(1, journal.readPending().size());
+    }
+
+    private Attendance mark(Long sessionId, Long studentId, String courseCode) {
+        Attendance attendance = new Attendance();
+        attendance.setSessionID(sessionId);
+        attendance.setStudentID(studentId);
+        attendance.setCourseCode(courseCode);
+        attendance.setAttendanceCode("code-" + sessionId);
+        attendance.setTimestamp(Instant.ofEpochSecond(1_700_000_000L));
+        attendance.setStatus("PRESENT");
+        return attendance;
+    }
+}
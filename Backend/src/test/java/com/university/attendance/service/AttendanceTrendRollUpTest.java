@@ -0,0 +1,57 @@
+package com.university.attendance.service;
+
+import com.university.attendance.dto.AttendanceTrendBucket;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class AttendanceTrendRollUpTest {
+
+    // Tuesday 2025-09-30, Wednesday 2025-10-01, Monday 2025-10-06
+    private final List<AttendanceTrendBucket> days = List.of(
+        new AttendanceTrendBucket(LocalDate.of(2025, 9, 30), 10, 8, 0),
+        new AttendanceTrendBucket(LocalDate.of(2025, 10, 1), 10, 5, 5),
+        new AttendanceTrendBucket(LocalDate.of(2025, 10, 6), 20, 20, 0));
+
+    @Test
+    void foldsDaysIntoWeeksStartingMonday() {
+        List<AttendanceTrendBucket> weeks = AttendanceReportService.rollUp(days, "week");
+
+        assertEquals(2, weeks.size());
+        assertEquals(LocalDate.of(2025, 9, 29), weeks.get(0).getPeriodStart());
+        assertEquals(20, weeks.get(0).getTotalRecords());
+        assertEquals(13, weeks.get(0).getPresentRecords());
+        assertEquals(5, weeks.get(0).getMissedRecords());
+        // Missed classes count towards the expected attendances: 13 of 25
+        assertEquals(52.0, weeks.get(0).getAttendanceRate(), 1e-9);
+        assertEquals(LocalDate.of(2025, 10, 6), weeks.get(1).getPeriodStart());
+    }
+
+    @Test
+    void foldsDaysIntoCalendarMonths() {
+        List<AttendanceTrendBucket> months = AttendanceReportService.rollUp(days, "month");
+
+        assertEquals(2, months.size());
+        assertEquals(LocalDate.of(2025, 9, 1), months.get(0).getPeriodStart());
+        assertEquals(10, months.get(0).getTotalRecords());
+        assertEquals(LocalDate.of(2025, 10, 1), months.get(1).getPeriodStart());
+        assertEquals(30, months.get(1).getTotalRecords());
+        assertEquals(25, months.get(1).getPresentRecords());
+        assertEquals(days, AttendanceReportService.rollUp(days, "day"));
+    }
+
+    @Test
+    void resolvesDateRangeStarts() {
+        LocalDate today = LocalDate.of(2025, 10, 1);
+
+        assertEquals(today, AttendanceReportService.rangeStart("today", today));
+        assertEquals(LocalDate.of(2025, 9, 29), AttendanceReportService.rangeStart("week", today));
+        assertEquals(LocalDate.of(2025, 10, 1), AttendanceReportService.rangeStart("month", today));
+        assertEquals(LocalDate.of(2025, 4, 1), AttendanceReportService.rangeStart("semester", today));
+        assertNull(AttendanceReportService.rangeStart("all", today));
+    }
+}
@@ -0,0 +1,45 @@
+package com.university.attendance.service;
+
+import com.university.attendance.dto.LocationVerificationResponse;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GeofenceEngineTest {
+
+    private final GeofenceEngine engine = new GeofenceEngine();
+
+    @Test
+    void haversineMatchesKnownDistance() {
+        // One degree of longitude on the equator
+        assertEquals(111_195, GeofenceEngine.haversineMeters(0, 0, 0, 1), 1);
+        // Longitude difference must count even when the latitudes are equal
+        assertEquals(78_626, GeofenceEngine.haversineMeters(45, 0, 45, 1), 5);
+    }
+
+    @Test
+    void referencePointAgreesWithHaversine() {
+        GeofenceEngine.ReferencePoint reference = GeofenceEngine.ReferencePoint.of(23.8103, 90.4125);
+        double expected = GeofenceEngine.haversineMeters(23.8103, 90.4125, 23.8110, 90.4131);
+        assertEquals(expected, reference.distanceMeters(23.8110, 90.4131), 1e-6);
+    }
+
+    @Test
+    void verifiesInsideRadiusAndRejectsFarAway() {
+        GeofenceEngine.ReferencePoint reference = GeofenceEngine.ReferencePoint.of(23.8103, 90.4125);
+
+        LocationVerificationResponse near = engine.verify(reference, "Room 3307", 23.8106, 90.4126);
+        assertTrue(near.isVerified());
+        assertTrue(near.getDistance() <= GeofenceEngine.ALLOWED_RADIUS_METERS);
+
+        LocationVerificationResponse tolerated = engine.verify(reference, "Room 3307", 23.8103, 90.4155);
+        assertTrue(tolerated.isVerified());
+        assertTrue(tolerated.getDistance() > GeofenceEngine.ALLOWED_RADIUS_METERS);
+
+        assertTrue(reference.isOutsideTolerance(23.8203, 90.4125));
+        LocationVerificationResponse far = engine.verify(reference, "Room 3307", 23.8203, 90.4125);
+        assertFalse(far.isVerified());
+    }
+}
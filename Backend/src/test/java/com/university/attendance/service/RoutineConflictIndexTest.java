@@ -0,0 +1,67 @@
+package com.university.attendance.service;
+
+import com.university.attendance.dto.RoutineResponse;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RoutineConflictIndexTest {
+
+    private final RoutineConflictIndex index = RoutineConflictIndex.build(List.of(
+        routine(1L, "CS101", "Monday", "08:00", "12:00", 10L, "A"),
+        routine(2L, "CS102", "Monday", "09:00", "10:00", 11L, "B"),
+        routine(3L, "CS103", "Monday", "13:00", "14:00", 10L, "B")
+    ));
+
+    @Test
+    void touchingSlotsDoNotOverlap() {
+        assertTrue(index.findOverlap(10L, "A", "Monday", LocalTime.of(12, 0), LocalTime.of(13, 0)).isEmpty());
+        assertTrue(index.findOverlap(10L, "A", "Tuesday", LocalTime.of(9, 0), LocalTime.of(10, 0)).isEmpty());
+    }
+
+    @Test
+    void findsOverlapHiddenBehindAShorterLaterSlot() {
+        // CS102 starts later but ends first; the long CS101 slot is the one that clashes for batch A
+        RoutineConflictIndex.RoutineConflict conflict =
+            index.findOverlap(99L, "A", "Monday", LocalTime.of(11, 0), LocalTime.of(11, 30)).orElseThrow();
+        assertEquals(RoutineConflictIndex.Scope.BATCH, conflict.getScope());
+        assertEquals(1L, conflict.getRoutine().getRoutineId());
+
+        conflict = index.findOverlap(10L, "C", "Monday", LocalTime.of(13, 30), LocalTime.of(15, 0)).orElseThrow();
+        assertEquals(RoutineConflictIndex.Scope.TEACHER, conflict.getScope());
+        assertEquals(3L, conflict.getRoutine().getRoutineId());
+    }
+
+    @Test
+    void matchesBatchAndDayIgnoringCaseAndSpaces() {
+        RoutineConflictIndex.RoutineConflict conflict =
+            index.findOverlap(99L, " a ", "MONDAY", LocalTime.of(9, 0), LocalTime.of(9, 30)).orElseThrow();
+        assertEquals(RoutineConflictIndex.Scope.BATCH, conflict.getScope());
+        assertEquals(1L, conflict.getRoutine().getRoutineId());
+        assertEquals(0, TimetableCache.dayOrder("monday "));
+    }
+
+    @Test
+    void listsExistingConflicts() {
+        RoutineConflictIndex withClash = RoutineConflictIndex.build(List.of(
+            routine(1L, "CS101", "Monday", "09:00", "10:00", 10L, "A"),
+            routine(2L, "CS102", "Monday", "09:30", "10:30", 10L, "B"),
+            routine(3L, "CS103", "Monday", "10:00", "11:00", 12L, "A")
+        ));
+        List<RoutineConflictIndex.RoutineConflict> conflicts = withClash.allConflicts();
+        assertEquals(1, conflicts.size());
+        assertEquals(RoutineConflictIndex.Scope.TEACHER, conflicts.get(0).getScope());
+        assertEquals(2L, conflicts.get(0).getOther().getRoutineId());
+    }
+
+    private static RoutineResponse routine(Long id, String courseCode, String day, String start, String end,
+                                           Long teacherId, String batch) {
+        return new RoutineResponse(id, id, courseCode, courseCode, LocalTime.parse(start), LocalTime.parse(end), day,
+            teacherId, "Teacher " + teacherId, "teacher" + teacherId, batch, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,64 @@
+package com.university.attendance.service;
+
+import com.university.attendance.entity.ClassSession;
+import com.university.attendance.entity.SessionStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+public class SessionExpirySchedulerTest {
+
+    private final AttendanceService attendanceService = mock(AttendanceService.class);
+    private final SessionExpiryScheduler scheduler = new SessionExpiryScheduler();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(scheduler, "attendanceService", attendanceService);
+        ReflectionTestUtils.setField(scheduler, "tickMs", 20L);
+        ReflectionTestUtils.setField(scheduler, "wheelSize", 64);
+        ReflectionTestUtils.setField(scheduler, "retryDelaySeconds", 30L);
+        scheduler.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.stop();
+    }
+
+    @Test
+    void generatedCodeIsEndedAtItsPlaceholderExpiry() {
+        // Generated on page load and never started: duration 0, placeholder expiry
+        scheduler.track(session(1L, 0, Instant.now().plusMillis(100)));
+
+        assertEquals(1, scheduler.scheduledCount());
+        verify(attendanceService, timeout(2000)).expireSession(1L);
+    }
+
+    @Test
+    void pausedSessionsAreNotScheduled() {
+        ClassSession session = session(2L, 30, Instant.now().plusSeconds(600));
+        scheduler.track(session);
+        session.setIsActive(false);
+        scheduler.track(session);
+
+        assertEquals(0, scheduler.scheduledCount());
+    }
+
+    private ClassSession session(Long id, int durationMinutes, Instant expiryTime) {
+        ClassSession session = new ClassSession();
+        session.setSessionID(id);
+        session.setDurationMinutes(durationMinutes);
+        session.setExpiryTime(expiryTime);
+        session.setStatus(SessionStatus.ACTIVE);
+        session.setIsActive(true);
+        return session;
+    }
+}
@@ -0,0 +1,49 @@
+package com.university.attendance.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SessionExpiryWheelTest {
+
+    private final Instant start = Instant.ofEpochSecond(1_700_000_000L);
+    private final SessionExpiryWheel wheel = new SessionExpiryWheel(1000, 8, start);
+
+    @Test
+    void expiresSessionsOnceTheirDeadlinePasses() {
+        wheel.schedule(1L, start.plusSeconds(3));
+        // Further away than one rotation of the 8-slot wheel
+        wheel.schedule(2L, start.plusSeconds(20));
+
+        assertTrue(wheel.advance(start.plusSeconds(2)).isEmpty());
+        assertEquals(List.of(1L), wheel.advance(start.plusSeconds(3)));
+        assertTrue(wheel.advance(start.plusSeconds(12)).isEmpty());
+        assertEquals(List.of(2L), wheel.advance(start.plusSeconds(21)));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void onlyTheLatestDeadlineCounts() {
+        wheel.schedule(1L, start.plusSeconds(3));
+        wheel.schedule(1L, start.plusSeconds(6));
+        wheel.schedule(2L, start.plusSeconds(4));
+        wheel.cancel(2L);
+
+        assertTrue(wheel.advance(start.plusSeconds(5)).isEmpty());
+        assertFalse(wheel.isScheduled(2L));
+        assertEquals(List.of(1L), wheel.advance(start.plusSeconds(6)));
+    }
+
+    @Test
+    void pastDeadlinesExpireOnTheNextTick() {
+        wheel.advance(start.plusSeconds(10));
+        wheel.schedule(1L, start.plusSeconds(2));
+
+        assertEquals(List.of(1L), wheel.advance(start.plusSeconds(11)));
+    }
+}
@@ -10,6 +10,7 @@ const AttendanceOverview = () => {
   });
 
   const [attendanceData, setAttendanceData] = useState([]);
+  const [nextCursor, setNextCursor] = useState<number | null>(null);
   const [statistics, setStatistics] = useState({
     totalRecords: 0,
     presentRecords: 0,
@@ -22,15 +23,17 @@ const AttendanceOverview = () => {
   const [loading, setLoading] = useState(false);
   const [error, setError] = useState(null);
 
-  // Fetch attendance data from backend
-  const fetchAttendanceData = async () => {
+  // Fetch attendance data from backend; with loadMore the next page is appended
+  const fetchAttendanceData = async (loadMore = false) => {
     setLoading(true);
     setError(null);
     
     try {
-      const data = await attendanceService.getAttendanceOverview(filters);
+      const data = await attendanceService.getAttendanceOverview(filters, loadMore ? nextCursor : null);
       if (data.success) {
-        setAttendanceData(data.attendanceRecords || []);
+        const records = data.attendanceRecords || [];
+        setAttendanceData(loadMore ? [...attendanceData, ...records] : records);
+        setNextCursor(data.nextCursor ?? null);
       }
     } catch (err: any) {
       setError(err.message);
@@ -382,6 +385,13 @@ const AttendanceOverview = () => {
                       )}
                     </tbody>
                   </table>
+                  {nextCursor && (
+                    <div className="text-center my-3">
+                      <button className="btn btn-outline-primary" onClick={() => fetchAttendanceData(true)}>
+                        <i className="fas fa-chevron-down me-2"></i>Load More
+                      </button>
+                    </div>
+                  )}
                 </div>
               )}
             </div>
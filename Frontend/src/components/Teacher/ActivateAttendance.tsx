@@ -1,4 +1,4 @@
-import React, { useState, useEffect } from 'react';
+import React, { useState, useEffect, useRef } from 'react';
 
 const ActivateAttendance = () => {
   const [currentClass, setCurrentClass] = useState<any>(null);
@@ -12,6 +12,12 @@ const ActivateAttendance = () => {
   const [sessionEndTime, setSessionEndTime] = useState<Date | null>(null);
   const [sessionAbsoluteEndTime, setSessionAbsoluteEndTime] = useState<Date | null>(null);
   const [sessionStats, setSessionStats] = useState<any>(null);
+  const attendeeStreamRef = useRef<AbortController | null>(null);
+
+  // Close the attendee stream when leaving the page
+  useEffect(() => {
+    return () => attendeeStreamRef.current?.abort();
+  }, []);
 
   useEffect(() => {
     // Load dynamic course information from localStorage
@@ -120,15 +126,21 @@ const ActivateAttendance = () => {
       });
       if (res.ok) {
         const attendees = await res.json();
-        setAttendedStudents(attendees.map((att, index) => ({
+        const snapshot = attendees.map((att, index) => ({
           id: att.attendanceId,
+          studentId: att.studentId,
           name: att.studentName,
           rollNo: att.rollNumber,
           time: new Date(att.timestamp).toLocaleTimeString(),
           status: att.status,
           sessionStart: att.sessionStart,
           sessionEnd: att.sessionEnd
-        })));
+        }));
+        // Merge by student: streamed marks may not be in the database yet
+        setAttendedStudents((prev) => {
+          const inSnapshot = new Set(snapshot.map((s) => s.studentId));
+          return [...snapshot, ...prev.filter((s) => !inSnapshot.has(s.studentId))];
+        });
       }
     } catch (e) {
       console.error('Error loading attendees:', e);
@@ -366,43 +378,87 @@ const ActivateAttendance = () => {
         alert('✅ Attendance started without location verification.');
       }
 
-      // Load session statistics and start polling for attendees
+      // Load session statistics and start streaming attendees
       loadSessionStatistics(sessionId);
-      startAttendeePolling();
+      startAttendeeStream();
     } catch (e: any) {
       alert('Network error: ' + e.message);
     }
   };
 
-  const startAttendeePolling = () => {
+  // Receive attendees as they mark attendance over server-sent events. fetch is used instead of
+  // EventSource because the stream needs the Authorization header. A dropped connection is reopened
+  // with a growing delay until the session ends or the stream is aborted.
+  const startAttendeeStream = async () => {
     const sessionId = localStorage.getItem('activeAttendanceSessionId');
     if (!sessionId) return;
-    
-    const pollInterval = setInterval(async () => {
-      if (!isActive) {
-        clearInterval(pollInterval);
-        return;
-      }
-      
+
+    attendeeStreamRef.current?.abort();
+    const controller = new AbortController();
+    attendeeStreamRef.current = controller;
+
+    let retryDelay = 1000;
+    while (!controller.signal.aborted) {
       try {
         const token = localStorage.getItem('attendanceToken');
-        const res = await fetch(`http://localhost:8080/api/attendance/attendees-details?sessionId=${sessionId}`, {
-          headers: { 'Authorization': `Bearer ${token}` }
+        const res = await fetch(`http://localhost:8080/api/attendance/attendees-stream?sessionId=${sessionId}`, {
+          headers: { 'Authorization': `Bearer ${token}`, 'Accept': 'text/event-stream' },
+          signal: controller.signal
         });
-        if (res.ok) {
-          const attendees = await res.json();
-          setAttendedStudents(attendees.map((att: any, index: number) => ({
-            id: att.attendanceId,
-            name: att.studentName,
-            rollNo: att.rollNumber,
-            time: new Date(att.timestamp).toLocaleTimeString(),
-            status: att.status
-          })));
+        // Client errors will not go away by retrying
+        if (!res.ok && res.status < 500) return;
+
+        if (res.ok && res.body) {
+          retryDelay = 1000;
+          // Catch up on anyone who marked before the stream was (re)opened
+          loadAttendees(sessionId);
+
+          const reader = res.body.getReader();
+          const decoder = new TextDecoder();
+          let buffer = '';
+          while (true) {
+            const { value, done } = await reader.read();
+            if (done) break;
+            buffer += decoder.decode(value, { stream: true });
+
+            let boundary;
+            while ((boundary = buffer.indexOf('\n\n')) !== -1) {
+              const block = buffer.slice(0, boundary);
+              buffer = buffer.slice(boundary + 2);
+
+              let eventName = 'message';
+              let data = '';
+              block.split('\n').forEach((line) => {
+                if (line.startsWith('event:')) eventName = line.slice(6).trim();
+                else if (line.startsWith('data:')) data += line.slice(5).trim();
+              });
+
+              if (eventName === 'attendee-marked' && data) {
+                const att = JSON.parse(data);
+                setAttendedStudents((prev) => prev.some((s) => s.studentId === att.studentId) ? prev : [...prev, {
+                  id: att.attendanceId,
+                  studentId: att.studentId,
+                  name: att.studentName,
+                  rollNo: att.rollNumber,
+                  time: new Date(att.timestamp).toLocaleTimeString(),
+                  status: att.status
+                }]);
+              } else if (eventName === 'session-ended') {
+                controller.abort();
+                return;
+              }
+            }
+          }
         }
-      } catch (e) {
-        console.error('Error fetching attendees:', e);
+      } catch (e: any) {
+        if (e.name === 'AbortError') return;
+        console.error('Attendee stream error:', e);
       }
-    }, 1000); // Poll every 1 second for real-time updates
+
+      // The stream closed or failed without a session-ended event: reconnect
+      await new Promise((resolve) => setTimeout(resolve, retryDelay));
+      retryDelay = Math.min(retryDelay * 2, 30000);
+    }
   };
 
   const stopAttendance = async () => {
@@ -424,6 +480,7 @@ const ActivateAttendance = () => {
 
       if (res.ok) {
         const result = await res.json();
+        attendeeStreamRef.current?.abort();
         setIsActive(false);
         setIsPaused(false);
         setTimeRemaining(0);
@@ -634,7 +691,7 @@ const ActivateAttendance = () => {
                     </thead>
                     <tbody>
                       {attendedStudents.map((s, idx) => (
-                        <tr key={s.id}>
+                        <tr key={s.id ?? s.studentId}>
                           <td>{idx + 1}</td>
                           <td><strong>{s.rollNo}</strong></td>
                           <td>{s.name}</td>
@@ -2,8 +2,8 @@
 const API_BASE_URL = 'http://localhost:8080';
 
 const attendanceService = {
-  // Get attendance overview data
-  async getAttendanceOverview(filters = {}) {
+  // Get one page of attendance overview data; pass the previous response's nextCursor to continue
+  async getAttendanceOverview(filters = {}, cursor = null) {
     try {
       const token = localStorage.getItem('attendanceToken');
       let url = `${API_BASE_URL}/api/admin/attendance/overview`;
@@ -18,6 +18,9 @@ const attendanceService = {
       if (filters.dateRange) {
         params.append('dateRange', filters.dateRange);
       }
+      if (cursor) {
+        params.append('cursor', cursor);
+      }
       
       if (params.toString()) {
         url += `?${params.toString()}`;